@@ -1,18 +1,24 @@
 package com.antra.report.client;
 
-import com.amazonaws.services.sqs.AmazonSQSAsync;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cloud.aws.messaging.core.QueueMessagingTemplate;
 //import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 //import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
 
 @SpringBootApplication
 @EnableEurekaClient
+@EnableScheduling
 public class MainClientApplication {
 
     @Bean
@@ -22,10 +28,25 @@ public class MainClientApplication {
     }
 
     @Bean
-    public QueueMessagingTemplate queueMessagingTemplate(
-            AmazonSQSAsync amazonSQSAsync) {
-        return new QueueMessagingTemplate(amazonSQSAsync);
+    @LoadBalanced
+    public WebClient.Builder getWebClientBuilder() {
+        return WebClient.builder();
+    }
+
+    /**
+     * The non-blocking /report/sync keeps the request open until both files are generated,
+     * so the async request timeout has to outlive the per-service generation timeouts.
+     */
+    @Bean
+    public WebMvcConfigurer asyncSupportConfigurer(@Value("${app.sync.async-timeout:120s}") Duration asyncTimeout) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setDefaultTimeout(asyncTimeout.toMillis());
+            }
+        };
     }
+
     public static void main(String[] args) {
         SpringApplication.run(MainClientApplication.class, args);
     }
@@ -0,0 +1,52 @@
+package com.antra.report.client.config;
+
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.sqs.AmazonSQSAsync;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.aws.messaging.config.SimpleMessageListenerContainerFactory;
+import org.springframework.cloud.aws.messaging.core.QueueMessagingTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AWSConfig {
+    @Bean
+    public QueueMessagingTemplate queueMessagingTemplate(
+            AmazonSQSAsync amazonSQSAsync) {
+        return new QueueMessagingTemplate(amazonSQSAsync);
+    }
+
+    /**
+     * Talk to an S3 compatible stand-in (e.g. MinIO or LocalStack) instead of AWS when app.s3.endpoint is set,
+     * the presigned download URLs then point to the stand-in as well
+     */
+    @Bean
+    @ConditionalOnProperty("app.s3.endpoint")
+    public AmazonS3 amazonS3(@Value("${app.s3.endpoint}") String endpoint, @Value("${app.s3.region:us-east-1}") String region) {
+        return AmazonS3ClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region))
+                .withPathStyleAccessEnabled(true)
+                .withCredentials(DefaultAWSCredentialsProviderChain.getInstance())
+                .build();
+    }
+
+    /**
+     * Long poll the response queues for up to 10 messages (the SQS maximum) per receive,
+     * the messages of one receive are handled concurrently and applied as one batch by the ReportSQSListener
+     */
+    @Bean
+    public SimpleMessageListenerContainerFactory simpleMessageListenerContainerFactory(
+            AmazonSQSAsync amazonSQSAsync,
+            @Value("${app.sqs.response.batch.max-size:10}") int maxNumberOfMessages,
+            @Value("${app.sqs.wait-time-seconds:20}") int waitTimeSeconds) {
+        SimpleMessageListenerContainerFactory factory = new SimpleMessageListenerContainerFactory();
+        factory.setAmazonSqs(amazonSQSAsync);
+        factory.setMaxNumberOfMessages(Math.min(maxNumberOfMessages, 10));
+        factory.setWaitTimeOut(waitTimeSeconds);
+        return factory;
+    }
+}
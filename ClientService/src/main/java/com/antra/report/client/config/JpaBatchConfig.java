@@ -0,0 +1,26 @@
+package com.antra.report.client.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Let Hibernate send the updates of a response batch as JDBC batches.
+ * Ordering the updates groups the statements of each table, so one batch holds all report_request
+ * (or pdf_report, excel_report) rows of the flush.
+ * The settings belong to the session factory, so every transaction of the service flushes this way, not only the
+ * response batches. Ordering only changes the order of the statements within one flush.
+ */
+@Configuration
+public class JpaBatchConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(@Value("${app.jpa.jdbc-batch-size:20}") int batchSize) {
+        return properties -> {
+            properties.put("hibernate.jdbc.batch_size", batchSize);
+            properties.put("hibernate.order_updates", true);
+            properties.put("hibernate.order_inserts", true);
+        };
+    }
+}
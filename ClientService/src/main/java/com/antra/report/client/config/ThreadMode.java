@@ -0,0 +1,8 @@
+package com.antra.report.client.config;
+
+/**
+ * Kind of threads running the request handling and the sync report fan-out, configured by app.threads.mode
+ */
+public enum ThreadMode {
+    PLATFORM, VIRTUAL
+}
@@ -0,0 +1,31 @@
+package com.antra.report.client.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Switch the Tomcat request handling to virtual threads when app.threads.mode=virtual.
+ * Most of a request is spent waiting on the generators, the database and S3, so with virtual threads
+ * the number of Tomcat threads stops being the limit of concurrent requests.
+ */
+@Configuration
+public class ThreadModeConfig {
+    private static final Logger log = LoggerFactory.getLogger(ThreadModeConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> threadModeProtocolHandlerCustomizer(@Value("${app.threads.mode:platform}") ThreadMode threadMode) {
+        if (threadMode != ThreadMode.VIRTUAL) {
+            return protocolHandler -> { };
+        }
+        if (!VirtualThreads.isSupported()) {
+            log.warn("app.threads.mode=virtual needs Java 21 or later, Tomcat keeps using platform threads");
+            return protocolHandler -> { };
+        }
+        log.info("Tomcat requests are handled on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.perTaskExecutor("tomcat-handler-"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.antra.report.client.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads while the services are still compiled for Java 11.
+ * Virtual threads are looked up reflectively, so they are only available when running on Java 21 or later.
+ */
+public final class VirtualThreads {
+
+    private static final boolean SUPPORTED = factory("probe-") != null;
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * Create a factory of virtual threads named prefix + counter
+     * @param prefix thread name prefix
+     * @return the factory, or null if the running JVM has no virtual threads
+     */
+    public static ThreadFactory factory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Executor starting a new virtual thread for every task, used in place of a thread pool
+     * @param prefix thread name prefix
+     * @return the executor
+     * @throws IllegalStateException if the running JVM has no virtual threads
+     */
+    public static Executor perTaskExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        if (factory == null) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, running on " + System.getProperty("java.version"));
+        }
+        return task -> factory.newThread(task).start();
+    }
+}
@@ -1,19 +1,28 @@
 package com.antra.report.client.controller;
 
+import com.antra.report.client.entity.ReportStatus;
+import com.antra.report.client.exception.InvalidCursorException;
+import com.antra.report.client.exception.RequestNotFoundException;
+import com.antra.report.client.exception.ServiceBusyException;
+import com.antra.report.client.pojo.DownloadMode;
 import com.antra.report.client.pojo.FileType;
 import com.antra.report.client.pojo.reponse.ErrorResponse;
 import com.antra.report.client.pojo.reponse.GeneralResponse;
+import com.antra.report.client.pojo.reponse.ReportFileVO;
 import com.antra.report.client.pojo.request.ReportRequest;
 import com.antra.report.client.service.ReportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.FileCopyUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -31,8 +40,16 @@ public class ReportController {
 //    private ReportService reportService;
 
     private final ReportService reportService;
-    public ReportController(ReportService reportService) {
+
+    private final boolean reactiveSync;
+
+    private final DownloadMode downloadMode;
+
+    public ReportController(ReportService reportService, @Value("${app.sync.reactive:false}") boolean reactiveSync,
+                            @Value("${app.download.mode:proxy}") DownloadMode downloadMode) {
         this.reportService = reportService;
+        this.reactiveSync = reactiveSync;
+        this.downloadMode = downloadMode;
     }
 
     /**
@@ -56,6 +73,23 @@ public class ReportController {
         return ResponseEntity.ok(new GeneralResponse(reportService.getReportList()));
     }
 
+    /**
+     * Get one page of the report list, newest first
+     * @param submitter optional, only list reports of this submitter
+     * @param status optional, only list reports having a PDF or Excel file in this status
+     * @param cursor optional, nextCursor returned with the previous page
+     * @param size number of reports in the page
+     * @return the page of reports and the cursor of the next page
+     */
+    @GetMapping("/report/page")
+    public ResponseEntity<GeneralResponse> listReportPage(@RequestParam(required = false) String submitter,
+                                                          @RequestParam(required = false) ReportStatus status,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "50") int size) {
+        log.info("Got Request to list report page, submitter: {}, status: {}, cursor: {}", submitter, status, cursor);
+        return ResponseEntity.ok(new GeneralResponse(reportService.getReportPage(submitter, status, cursor, size)));
+    }
+
     /**
      * Delete the report by id
      * @param reqId report id to delete
@@ -84,15 +118,19 @@ public class ReportController {
      * After the report files are generated, the file location will be updated for future downloading
      * Also specifying the request is for Sync report
      * The ReportRequestEntity object will be stored in the database
+     * With app.sync.reactive enabled, the request thread is released while waiting for the report files
      * @param request user input data for reports
      * @return HTTP.ok response with completed ReportRequestEntity
      */
     @PostMapping("/report/sync")
-    public ResponseEntity<GeneralResponse> createReportDirectly(@RequestBody @Validated ReportRequest request) {
+    public Mono<ResponseEntity<GeneralResponse>> createReportDirectly(@RequestBody @Validated ReportRequest request) {
         log.info("Got Request to generate report - sync: {}", request);
         request.setDescription(String.join(" - ", "Sync", request.getDescription()));
 
-        return ResponseEntity.ok(new GeneralResponse(reportService.generateReportsSync(request)));
+        if (reactiveSync) {
+            return reportService.generateReportsSyncReactive(request).map(report -> ResponseEntity.ok(new GeneralResponse(report)));
+        }
+        return Mono.just(ResponseEntity.ok(new GeneralResponse(reportService.generateReportsSync(request))));
     }
 
 
@@ -115,32 +153,38 @@ public class ReportController {
 
     /**
      * Allow the user download the report file based on the file location in the RequestReportEntity
+     * With REDIRECT or URL mode the client gets a short-lived presigned URL and fetches the file straight from S3,
+     * PROXY streams the file through this service.
      * @param reqId The requested report id
      * @param type may be PDF or Excel, depends on which user chooses to download
+     * @param mode PROXY, REDIRECT or URL, app.download.mode if not given
      * @param response
+     * @return 302 to the presigned URL, the presigned URL, or nothing when the file is streamed to the response
      * @throws IOException
      */
     @GetMapping("/report/content/{reqId}/{type}")
-    public void downloadFile(@PathVariable String reqId, @PathVariable FileType type, HttpServletResponse response) throws IOException {
-        log.debug("Got Request to Download File - type: {}, reqid: {}", type, reqId);
-        InputStream fis = reportService.getFileBodyByReqId(reqId, type);
-        String fileType = null;
-        String fileName = null;
-        if(type == FileType.PDF) {
-            fileType = "application/pdf";
-            fileName = "report.pdf";
-        } else if (type == FileType.EXCEL) {
-            fileType = "application/vnd.ms-excel";
-            fileName = "report.xls";
+    public ResponseEntity<GeneralResponse> downloadFile(@PathVariable String reqId, @PathVariable FileType type,
+                                                        @RequestParam(required = false) DownloadMode mode,
+                                                        HttpServletResponse response) throws IOException {
+        log.debug("Got Request to Download File - type: {}, reqid: {}, mode: {}", type, reqId, mode);
+        DownloadMode requestMode = mode != null ? mode : downloadMode;
+        if (requestMode == DownloadMode.REDIRECT) {
+            return ResponseEntity.status(HttpStatus.FOUND).header(HttpHeaders.LOCATION, reportService.getFileUrlByReqId(reqId, type).toString()).build();
+        } else if (requestMode == DownloadMode.URL) {
+            return ResponseEntity.ok(new GeneralResponse(reportService.getFileUrlByReqId(reqId, type).toString()));
         }
-        response.setHeader("Content-Type", fileType);
-        response.setHeader("fileName", fileName);
+        InputStream fis = reportService.getFileBodyByReqId(reqId, type);
+        ReportFileVO file = reportService.getFileByReqId(reqId, type);
+        response.setHeader("Content-Type", file.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + file.getFileName() + "\"");
+        response.setHeader("fileName", file.getFileName());
         if (fis != null) {
             FileCopyUtils.copy(fis, response.getOutputStream());
         } else{
             response.setStatus(500);
         }
         log.debug("Downloaded File:{}", reqId);
+        return null;
     }
 
 //   @DeleteMapping
@@ -152,4 +196,22 @@ public class ReportController {
         String errorFields = e.getBindingResult().getFieldErrors().stream().map(fe -> String.join(" ",fe.getField(),fe.getDefaultMessage())).collect(Collectors.joining(", "));
         return new ResponseEntity<>(new ErrorResponse(HttpStatus.BAD_REQUEST, errorFields), HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<GeneralResponse> handleInvalidCursorException(InvalidCursorException e) {
+        log.warn("Report page request invalid: {}", e.getMessage());
+        return new ResponseEntity<>(new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(RequestNotFoundException.class)
+    public ResponseEntity<GeneralResponse> handleRequestNotFoundException(RequestNotFoundException e) {
+        log.warn("Report not found");
+        return new ResponseEntity<>(new ErrorResponse(HttpStatus.NOT_FOUND, "Report not found"), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<GeneralResponse> handleServiceBusyException(ServiceBusyException e) {
+        log.warn("Report service busy: {}", e.getMessage());
+        return new ResponseEntity<>(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
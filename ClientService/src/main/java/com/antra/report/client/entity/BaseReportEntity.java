@@ -16,6 +16,8 @@ public class BaseReportEntity {
     private ReportRequestEntity request;
     private String fileLocation;
     private long fileSize;
+    private String fileName;
+    private String contentType;
     private ReportStatus status;
     private LocalDateTime createdTime;
     private LocalDateTime updatedTime;
@@ -51,6 +53,22 @@ public class BaseReportEntity {
         this.fileSize = fileSize;
     }
 
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
     public LocalDateTime getCreatedTime() {
         return createdTime;
     }
@@ -1,8 +1,11 @@
 package com.antra.report.client.entity;
 
 import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
 
 @Entity(name="excel_report")
+@Table(name="excel_report", indexes = @Index(name="idx_excel_report_status", columnList="status"))
 public class ExcelReportEntity extends BaseReportEntity{
 
 }
@@ -0,0 +1,99 @@
+package com.antra.report.client.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A message waiting to be published, written in the same transaction as the report change it belongs to:
+ * a report request for SNS, or the completion email of a report for Email_Queue.
+ * A parked message failed app.outbox.max-attempts times and is not published anymore.
+ * claimedBy and claimedUntil are the lease of the relay instance publishing the message, an expired lease can be claimed again.
+ */
+@Entity(name="report_outbox")
+@Table(name="report_outbox")
+public class OutboxMessageEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String reqId;
+    private OutboxMessageType type = OutboxMessageType.REPORT;
+    @Lob
+    private String payload;
+    private LocalDateTime createdTime;
+    private int attempts;
+    private boolean parked;
+    private String claimedBy;
+    private LocalDateTime claimedUntil;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getReqId() {
+        return reqId;
+    }
+
+    public void setReqId(String reqId) {
+        this.reqId = reqId;
+    }
+
+    public OutboxMessageType getType() {
+        return type;
+    }
+
+    public void setType(OutboxMessageType type) {
+        this.type = type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedTime() {
+        return createdTime;
+    }
+
+    public void setCreatedTime(LocalDateTime createdTime) {
+        this.createdTime = createdTime;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public boolean isParked() {
+        return parked;
+    }
+
+    public void setParked(boolean parked) {
+        this.parked = parked;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public LocalDateTime getClaimedUntil() {
+        return claimedUntil;
+    }
+
+    public void setClaimedUntil(LocalDateTime claimedUntil) {
+        this.claimedUntil = claimedUntil;
+    }
+}
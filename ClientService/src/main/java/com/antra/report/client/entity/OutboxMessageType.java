@@ -0,0 +1,5 @@
+package com.antra.report.client.entity;
+
+public enum OutboxMessageType {
+    REPORT, EMAIL
+}
@@ -1,8 +1,11 @@
 package com.antra.report.client.entity;
 
 import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
 
 @Entity(name="pdf_report")
+@Table(name="pdf_report", indexes = @Index(name="idx_pdf_report_status", columnList="status"))
 public class PDFReportEntity extends BaseReportEntity{
 
 }
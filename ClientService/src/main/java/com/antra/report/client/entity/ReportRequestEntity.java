@@ -7,6 +7,10 @@ import java.time.LocalDateTime;
  *
  */
 @Entity(name="report_request")
+@Table(name="report_request", indexes = {
+        @Index(name="idx_report_request_created", columnList="createdTime, reqId"),
+        @Index(name="idx_report_request_submitter", columnList="submitter, createdTime, reqId")
+})
 public class ReportRequestEntity {
     @Id
     private String reqId;
@@ -14,6 +18,7 @@ public class ReportRequestEntity {
     private String description;
     private LocalDateTime createdTime;
     private LocalDateTime updatedTime;
+    private boolean completionNotified;
 
     @OneToOne(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE}, fetch = FetchType.EAGER) // default is already eager here
     @JoinColumn(name="pdf_report_id")
@@ -77,4 +82,12 @@ public class ReportRequestEntity {
     public void setUpdatedTime(LocalDateTime updatedTime) {
         this.updatedTime = updatedTime;
     }
+
+    public boolean isCompletionNotified() {
+        return completionNotified;
+    }
+
+    public void setCompletionNotified(boolean completionNotified) {
+        this.completionNotified = completionNotified;
+    }
 }
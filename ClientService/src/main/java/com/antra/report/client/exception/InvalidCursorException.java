@@ -0,0 +1,14 @@
+package com.antra.report.client.exception;
+
+/**
+ * Thrown when the cursor or the page size of a report page request cannot be used
+ */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,10 @@
+package com.antra.report.client.exception;
+
+/**
+ * Thrown when a downstream report generation service has no capacity left to accept another request
+ */
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
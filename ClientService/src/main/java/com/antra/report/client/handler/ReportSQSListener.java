@@ -1,14 +1,20 @@
 package com.antra.report.client.handler;
 
-import com.antra.report.client.exception.RequestNotFoundException;
 import com.antra.report.client.pojo.FileType;
 import com.antra.report.client.pojo.reponse.SqsResponse;
 import com.antra.report.client.service.ReportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.aws.messaging.listener.SqsMessageDeletionPolicy;
 import org.springframework.cloud.aws.messaging.listener.annotation.SqsListener;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
 /**
  * ReportSQSListener handles the responses from both PDFService and ExcelService, which tell the ClientService the asynchronous report request for
  * generating PDF and Excel report files is complete or failed
@@ -19,43 +25,90 @@ public class ReportSQSListener {
     private static final Logger log = LoggerFactory.getLogger(ReportSQSListener.class);
 
     private ReportService reportService;
+    private final boolean batchEnabled;
+    private final int maxReceives;
+    private final SqsResponseBatcher pdfBatcher;
+    private final SqsResponseBatcher excelBatcher;
 
-    public ReportSQSListener(ReportService reportService) {
+    public ReportSQSListener(ReportService reportService,
+                             @Value("${app.sqs.response.batch.enabled:true}") boolean batchEnabled,
+                             @Value("${app.sqs.response.batch.max-size:10}") int batchMaxSize,
+                             @Value("${app.sqs.response.batch.max-wait:50ms}") Duration batchMaxWait,
+                             @Value("${app.sqs.response.max-receives:5}") int maxReceives) {
         this.reportService = reportService;
+        this.batchEnabled = batchEnabled;
+        this.maxReceives = maxReceives;
+        this.pdfBatcher = batchEnabled ? new SqsResponseBatcher(reportService, FileType.PDF, batchMaxSize, batchMaxWait) : null;
+        this.excelBatcher = batchEnabled ? new SqsResponseBatcher(reportService, FileType.EXCEL, batchMaxSize, batchMaxWait) : null;
     }
 
     /**
      * Triggered when receiving request response from PDF service, which is responding the async report request sent earlier
      * This will lead to updating tne target report with the PDF file location and report status.
+     * The message is deleted only after its update is stored.
      * @param response response from PDF service
+     * @param receiveCount how many times SQS delivered this message
      */
-    @SqsListener("PDF_Response_Queue")
-    public void responseQueueListenerPdf(SqsResponse response) {
+    @SqsListener(value = "PDF_Response_Queue", deletionPolicy = SqsMessageDeletionPolicy.ON_SUCCESS)
+    public void responseQueueListenerPdf(SqsResponse response, @Header(name = "ApproximateReceiveCount", required = false) String receiveCount) {
         log.info("Get response from sqs : {}", response);
-        //queueListener(request.getPdfRequest());
-        reportService.updateReportFromResponse(response, FileType.PDF);
+        receive(response, receiveCount, FileType.PDF, pdfBatcher);
     }
 
 
     /**
      * Triggered when receiving request response from Excel service, which is responding the async report request sent earlier
      * This will lead to updating tne target report with the Excel file location and report status.
+     * The message is deleted only after its update is stored.
      * @param response response from Excel service
+     * @param receiveCount how many times SQS delivered this message
      */
-    @SqsListener("Excel_Response_Queue")
-    public void responseQueueListenerExcel(SqsResponse response) {
+    @SqsListener(value = "Excel_Response_Queue", deletionPolicy = SqsMessageDeletionPolicy.ON_SUCCESS)
+    public void responseQueueListenerExcel(SqsResponse response, @Header(name = "ApproximateReceiveCount", required = false) String receiveCount) {
         log.info("Get response from sqs : {}", response);
-        //queueListener(request.getPdfRequest());
-        reportService.updateReportFromResponse(response, FileType.EXCEL);
+        receive(response, receiveCount, FileType.EXCEL, excelBatcher);
+    }
 
+    /**
+     * Apply the response, a failure is thrown so the container keeps the message and SQS delivers it again.
+     * The failure of the app.sqs.response.max-receives th delivery is logged and swallowed instead, so the container
+     * deletes the poison message rather than receiving it forever (0 leaves it to the redrive policy of the queue).
+     */
+    private void receive(SqsResponse response, String receiveCount, FileType type, SqsResponseBatcher batcher) {
+        try {
+            handleResponse(response, type, batcher);
+        } catch (RuntimeException e) {
+            int deliveries = receiveCount == null ? 1 : Integer.parseInt(receiveCount);
+            if (maxReceives <= 0 || deliveries < maxReceives) {
+                throw e;
+            }
+            log.error("Dropping the {} response of {} after {} failed deliveries", type, response.getReqId(), deliveries, e);
+        }
     }
 
-//    @SqsListener(value = "Excel_Response_Queue", deletionPolicy = SqsMessageDeletionPolicy.NEVER)
-//    public void responseQueueListenerExcelManualAcknowledge(SqsResponse response, Acknowledgment ack) {
-//        log.info("Get response from sqs : {}", response);
-//        log.info("Manually Acknowledge");
-//        //queueListener(request.getPdfRequest());
-//        reportService.updateAsyncExcelReport(response);
-//        ack.acknowledge();
-//    }
+    /**
+     * Apply the response through the batcher of its queue, or directly if batching is disabled
+     */
+    private void handleResponse(SqsResponse response, FileType type, SqsResponseBatcher batcher) {
+        if (!batchEnabled) {
+            reportService.updateReportFromResponse(response, type);
+            return;
+        }
+        try {
+            batcher.submit(response).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batchEnabled) {
+            pdfBatcher.shutdown();
+            excelBatcher.shutdown();
+        }
+    }
 }
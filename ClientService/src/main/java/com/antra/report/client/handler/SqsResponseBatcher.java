@@ -0,0 +1,121 @@
+package com.antra.report.client.handler;
+
+import com.antra.report.client.pojo.FileType;
+import com.antra.report.client.pojo.reponse.SqsResponse;
+import com.antra.report.client.service.ReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * SqsResponseBatcher collects the generator responses of one response queue and applies them as one batch.
+ * The listener container hands the messages of one poll to concurrent listener threads, each of them submits its response
+ * and waits. A batch is applied when maxBatchSize responses are collected or maxWait has passed since the first one.
+ * If the batch fails, its responses are applied one by one, so only the bad message fails and stays on the queue.
+ */
+class SqsResponseBatcher {
+    private static final Logger log = LoggerFactory.getLogger(SqsResponseBatcher.class);
+
+    private final ReportService reportService;
+    private final FileType type;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingResponse> pending = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    SqsResponseBatcher(ReportService reportService, FileType type, int maxBatchSize, Duration maxWait) {
+        this.reportService = reportService;
+        this.type = type;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.worker = new Thread(this::run, "sqs-response-batcher-" + type.name().toLowerCase());
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Add the response to the next batch
+     * @param response response from PDFService or ExcelService
+     * @return future completed when the response is stored, or completed exceptionally if it could not be applied
+     */
+    CompletableFuture<Void> submit(SqsResponse response) {
+        PendingResponse pendingResponse = new PendingResponse(response);
+        if (!running) {
+            pendingResponse.done.completeExceptionally(new IllegalStateException("Response batcher is stopped"));
+        } else {
+            pending.add(pendingResponse);
+        }
+        return pendingResponse.done;
+    }
+
+    void shutdown() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            List<PendingResponse> batch = new ArrayList<>(maxBatchSize);
+            try {
+                PendingResponse first = pending.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingResponse next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                apply(batch);
+            }
+        }
+        // messages still waiting are not acknowledged, SQS delivers them again
+        pending.forEach(p -> p.done.completeExceptionally(new IllegalStateException("Response batcher is stopped")));
+    }
+
+    private void apply(List<PendingResponse> batch) {
+        try {
+            reportService.updateReportsFromResponses(batch.stream().map(p -> p.response).collect(Collectors.toList()), type);
+            batch.forEach(p -> p.done.complete(null));
+            log.debug("Applied {} {} responses in one batch", batch.size(), type);
+        } catch (Exception e) {
+            log.warn("Batch of {} {} responses failed, applying them one by one", batch.size(), type, e);
+            for (PendingResponse p : batch) {
+                try {
+                    reportService.updateReportFromResponse(p.response, type);
+                    p.done.complete(null);
+                } catch (Exception single) {
+                    log.error("Cannot apply response from sqs : {}", p.response, single);
+                    p.done.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private static class PendingResponse {
+        private final SqsResponse response;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingResponse(SqsResponse response) {
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.antra.report.client.pojo;
+
+/**
+ * Type of a report column, the same names as ExcelDataType in ExcelService
+ */
+public enum ColumnType {
+    STRING, NUMBER, DATE
+}
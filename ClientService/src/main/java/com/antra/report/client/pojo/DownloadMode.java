@@ -0,0 +1,10 @@
+package com.antra.report.client.pojo;
+
+/**
+ * How a report file is downloaded, configured by app.download.mode or the mode request parameter
+ * PROXY streams the file through ClientService, REDIRECT answers 302 to a presigned storage URL and
+ * URL returns the presigned URL as JSON.
+ */
+public enum DownloadMode {
+    PROXY, REDIRECT, URL
+}
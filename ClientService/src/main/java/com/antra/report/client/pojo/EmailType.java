@@ -1,11 +1,14 @@
 package com.antra.report.client.pojo;
 
 public enum EmailType {
-    SUCCESS("Hi %NAME%, your report is generated.");
+    SUCCESS("We did it!", "Hi %NAME%, your report is generated."),
+    FAILURE("Report generation failed", "Hi %NAME%, your report is done, but not every file could be generated.");
 
+    public String subject;
     public String content;
 
-    EmailType(String content) {
+    EmailType(String subject, String content) {
+        this.subject = subject;
         this.content = content;
     }
 }
@@ -1,6 +1,7 @@
 package com.antra.report.client.pojo.reponse;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class ExcelResponse {
     private String reqId;
@@ -8,6 +9,7 @@ public class ExcelResponse {
     private String fileLocation;
     private long fileSize;
     private String fileName;
+    private List<String> fileParts;
     private String submitter;
     private String description;
     private LocalDateTime generatedTime;
@@ -53,6 +55,14 @@ public class ExcelResponse {
         this.fileName = fileName;
     }
 
+    public List<String> getFileParts() {
+        return fileParts;
+    }
+
+    public void setFileParts(List<String> fileParts) {
+        this.fileParts = fileParts;
+    }
+
     public String getSubmitter() {
         return submitter;
     }
@@ -0,0 +1,22 @@
+package com.antra.report.client.pojo.reponse;
+
+/**
+ * Name and content type a report file is downloaded with.
+ */
+public class ReportFileVO {
+    private final String fileName;
+    private final String contentType;
+
+    public ReportFileVO(String fileName, String contentType) {
+        this.fileName = fileName;
+        this.contentType = contentType;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,34 @@
+package com.antra.report.client.pojo.reponse;
+
+import java.util.List;
+
+/**
+ * One page of the report list. nextCursor is passed back to get the following page, it is null on the last page.
+ */
+public class ReportPageVO {
+    private List<ReportVO> items;
+    private String nextCursor;
+
+    public ReportPageVO() {}
+
+    public ReportPageVO(List<ReportVO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ReportVO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ReportVO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
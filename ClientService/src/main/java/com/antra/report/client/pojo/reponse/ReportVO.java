@@ -5,48 +5,76 @@ import com.antra.report.client.entity.ReportStatus;
 
 import java.time.LocalDateTime;
 
+/**
+ * Snapshot of a report and the status of its PDF and Excel files.
+ * It can be built from a loaded ReportRequestEntity, or directly by a JPQL constructor expression without loading any entity.
+ */
 public class ReportVO {
-    private ReportRequestEntity entity;
+    private String id;
+    private String submitter;
+    private String description;
+    private LocalDateTime createdTime;
+    private LocalDateTime lastUpdatedTime;
+    private ReportStatus pdfReportStatus;
+    private LocalDateTime pdfReportUpdatedTime;
+    private ReportStatus excelReportStatus;
+    private LocalDateTime excelReportUpdatedTime;
 
     public ReportVO() {}
 
     public ReportVO(ReportRequestEntity entity) {
-        this.entity = entity;
+        this(entity.getReqId(), entity.getSubmitter(), entity.getDescription(), entity.getCreatedTime(), entity.getUpdatedTime(),
+                entity.getPdfReport().getStatus(), entity.getPdfReport().getUpdatedTime(),
+                entity.getExcelReport().getStatus(), entity.getExcelReport().getUpdatedTime());
+    }
+
+    public ReportVO(String id, String submitter, String description, LocalDateTime createdTime, LocalDateTime lastUpdatedTime,
+                    ReportStatus pdfReportStatus, LocalDateTime pdfReportUpdatedTime,
+                    ReportStatus excelReportStatus, LocalDateTime excelReportUpdatedTime) {
+        this.id = id;
+        this.submitter = submitter;
+        this.description = description;
+        this.createdTime = createdTime;
+        this.lastUpdatedTime = lastUpdatedTime;
+        this.pdfReportStatus = pdfReportStatus;
+        this.pdfReportUpdatedTime = pdfReportUpdatedTime;
+        this.excelReportStatus = excelReportStatus;
+        this.excelReportUpdatedTime = excelReportUpdatedTime;
     }
 
     public String getSubmitter() {
-        return entity.getSubmitter();
+        return submitter;
     }
 
     public String getId() {
-        return entity.getReqId();
+        return id;
     }
 
     public String getDescription() {
-        return entity.getDescription();
+        return description;
     }
 
     public LocalDateTime getCreatedTime() {
-        return entity.getCreatedTime();
+        return createdTime;
     }
 
     public LocalDateTime getLastUpdatedTime() {
-        return entity.getUpdatedTime();
+        return lastUpdatedTime;
     }
 
     public ReportStatus getPdfReportStatus() {
-        return entity.getPdfReport().getStatus();
+        return pdfReportStatus;
     }
 
     public ReportStatus getExcelReportStatus() {
-        return entity.getExcelReport().getStatus();
+        return excelReportStatus;
     }
 
     public LocalDateTime getPdfReportUpdatedTime() {
-        return entity.getPdfReport().getUpdatedTime();
+        return pdfReportUpdatedTime;
     }
 
     public LocalDateTime getExcelReportUpdatedTime() {
-        return entity.getExcelReport().getUpdatedTime();
+        return excelReportUpdatedTime;
     }
 }
@@ -1,10 +1,14 @@
 package com.antra.report.client.pojo.reponse;
 
+import java.util.List;
+
 public class SqsResponse {
     private String fileId;
     private String reqId;
     private String fileLocation;
     private long fileSize;
+    private String fileName;
+    private List<String> fileParts;
     private boolean failed;
 
     public String getFileId() {
@@ -39,6 +43,22 @@ public class SqsResponse {
         this.fileSize = fileSize;
     }
 
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public List<String> getFileParts() {
+        return fileParts;
+    }
+
+    public void setFileParts(List<String> fileParts) {
+        this.fileParts = fileParts;
+    }
+
     public boolean isFailed() {
         return failed;
     }
@@ -54,6 +74,8 @@ public class SqsResponse {
                 ", reqId='" + reqId + '\'' +
                 ", fileLocation='" + fileLocation + '\'' +
                 ", fileSize=" + fileSize +
+                ", fileName='" + fileName + '\'' +
+                ", fileParts=" + fileParts +
                 ", failed=" + failed +
                 '}';
     }
@@ -1,5 +1,7 @@
 package com.antra.report.client.pojo.request;
 
+import com.antra.report.client.pojo.ColumnType;
+
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Null;
@@ -10,12 +12,16 @@ public class ReportRequest {
     private String reqId;
     @NotEmpty
     private List<String> headers;
+    /** Optional type of each column in the order of the headers, forwarded to ExcelService, missing ones are STRING */
+    private List<ColumnType> types;
     @NotBlank
     private String description;
     @NotEmpty
     private List<List<String>> data;
     @NotBlank
     private String submitter;
+    @Null // set when the data is offloaded to the ReportDataStore, shouldn't be passed from client
+    private String dataLocation;
 
     public String getReqId() {
         return reqId;
@@ -49,6 +55,14 @@ public class ReportRequest {
         this.headers = headers;
     }
 
+    public List<ColumnType> getTypes() {
+        return types;
+    }
+
+    public void setTypes(List<ColumnType> types) {
+        this.types = types;
+    }
+
     public List<List<String>> getData() {
         return data;
     }
@@ -57,12 +71,22 @@ public class ReportRequest {
         this.data = data;
     }
 
+    public String getDataLocation() {
+        return dataLocation;
+    }
+
+    public void setDataLocation(String dataLocation) {
+        this.dataLocation = dataLocation;
+    }
+
     @Override
     public String toString() {
         return "ReportRequest{" +
                 "headers=" + headers +
+                ", types=" + types +
                 ", description='" + description + '\'' +
                 ", data=" + data +
+                ", dataLocation='" + dataLocation + '\'' +
                 ", submitter='" + submitter + '\'' +
                 '}';
     }
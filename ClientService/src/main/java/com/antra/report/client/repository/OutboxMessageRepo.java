@@ -0,0 +1,63 @@
+package com.antra.report.client.repository;
+
+import com.antra.report.client.entity.OutboxMessageEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxMessageRepo extends JpaRepository<OutboxMessageEntity, Long> {
+
+    /**
+     * The oldest messages first, every row in the outbox that is not parked is still to be published.
+     * Rows leased by a relay until after now are left to that relay.
+     */
+    @Query("select o from report_outbox o where o.parked = false and (o.claimedUntil is null or o.claimedUntil < :now) order by o.id asc")
+    List<OutboxMessageEntity> findAvailable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Lease the given messages to the owner until the given time, unless another relay holds a lease that has not expired
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update report_outbox o set o.claimedBy = :owner, o.claimedUntil = :until " +
+            "where o.id in :ids and (o.claimedUntil is null or o.claimedUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    List<OutboxMessageEntity> findAllByClaimedByAndIdInOrderByIdAsc(String claimedBy, Collection<Long> ids);
+
+    Optional<OutboxMessageEntity> findFirstByParkedFalseOrderByIdAsc();
+
+    long countByParkedTrue();
+
+    /**
+     * Remove the published messages in one statement
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from report_outbox o where o.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Count a failed publish and release the lease, so the next run can retry the messages
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update report_outbox o set o.attempts = o.attempts + 1, o.claimedBy = null, o.claimedUntil = null where o.id in :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Stop publishing the messages that failed maxAttempts times
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update report_outbox o set o.parked = true where o.id in :ids and o.attempts >= :maxAttempts")
+    int parkExhausted(@Param("ids") Collection<Long> ids, @Param("maxAttempts") int maxAttempts);
+}
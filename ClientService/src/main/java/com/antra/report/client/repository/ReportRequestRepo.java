@@ -1,8 +1,75 @@
 package com.antra.report.client.repository;
 
 import com.antra.report.client.entity.ReportRequestEntity;
+import com.antra.report.client.entity.ReportStatus;
+import com.antra.report.client.pojo.reponse.ReportVO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface ReportRequestRepo extends JpaRepository<ReportRequestEntity, String> {
 
+    String SELECT_REPORT_VO = "select new com.antra.report.client.pojo.reponse.ReportVO(" +
+            "r.reqId, r.submitter, r.description, r.createdTime, r.updatedTime, p.status, p.updatedTime, e.status, e.updatedTime) " +
+            "from report_request r left join r.pdfReport p left join r.excelReport e ";
+
+    /**
+     * List all reports as value objects in one query, without loading the entities
+     */
+    @Query(SELECT_REPORT_VO + "order by r.createdTime desc, r.reqId desc")
+    List<ReportVO> findAllReportVOs();
+
+    /**
+     * Load the reports with both file entities in one query, used to apply a batch of generator responses
+     */
+    @Query("select r from report_request r left join fetch r.pdfReport left join fetch r.excelReport where r.reqId in :reqIds")
+    List<ReportRequestEntity> findAllWithFilesByReqIdIn(@Param("reqIds") Collection<String> reqIds);
+
+    /**
+     * Read a single report as value object, without loading the entities
+     */
+    @Query(SELECT_REPORT_VO + "where r.reqId = :reqId")
+    Optional<ReportVO> findReportVOById(@Param("reqId") String reqId);
+
+    /**
+     * Read the reports with the given ids as value objects, without loading the entities
+     */
+    @Query(SELECT_REPORT_VO + "where r.reqId in :reqIds")
+    List<ReportVO> findReportVOsByReqIdIn(@Param("reqIds") Collection<String> reqIds);
+
+    /**
+     * Claim the completion email of a report, only the first caller gets 1 and sends it
+     */
+    @Transactional
+    @Modifying
+    @Query("update report_request r set r.completionNotified = true where r.reqId = :reqId and r.completionNotified = false")
+    int markCompletionNotified(@Param("reqId") String reqId);
+
+    /**
+     * Keyset pagination over (createdTime, reqId), newest first.
+     * Every filter is optional, a null afterCreatedTime starts from the first page.
+     * A status matches a report when its PDF or its Excel file has that status. Each file table is checked by its own
+     * subquery, so the status indexes of pdf_report and excel_report can be used instead of filtering the joined rows.
+     */
+    @Query(SELECT_REPORT_VO +
+            "where (:submitter is null or r.submitter = :submitter) " +
+            "and (:status is null " +
+            "or exists (select sp.id from pdf_report sp where sp.status = :status and sp.id = r.pdfReport.id) " +
+            "or exists (select se.id from excel_report se where se.status = :status and se.id = r.excelReport.id)) " +
+            "and (:afterCreatedTime is null or r.createdTime < :afterCreatedTime " +
+            "or (r.createdTime = :afterCreatedTime and r.reqId < :afterReqId)) " +
+            "order by r.createdTime desc, r.reqId desc")
+    List<ReportVO> findReportVOPage(@Param("submitter") String submitter,
+                                    @Param("status") ReportStatus status,
+                                    @Param("afterCreatedTime") LocalDateTime afterCreatedTime,
+                                    @Param("afterReqId") String afterReqId,
+                                    Pageable pageable);
 }
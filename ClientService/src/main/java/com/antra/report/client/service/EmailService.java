@@ -2,9 +2,15 @@ package com.antra.report.client.service;
 
 import com.antra.report.client.pojo.EmailType;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * EmailService send the constant email to the address when the report is generated
  */
 public interface EmailService {
-    void sendEmail(String to, EmailType success, String submitter);
+    /**
+     * Queue the email
+     * @return completes once Email_Queue accepted the email, or exceptionally when it could not be sent
+     */
+    CompletableFuture<Void> sendEmail(String to, EmailType type, String submitter);
 }
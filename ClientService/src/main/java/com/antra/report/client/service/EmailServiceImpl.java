@@ -1,41 +1,162 @@
 package com.antra.report.client.service;
 
+import com.amazonaws.services.sqs.AmazonSQSAsync;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchResultEntry;
 import com.antra.report.client.pojo.EmailType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cloud.aws.messaging.core.QueueMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
 /**
  * EmailServiceImpl send the constant email to the address when the report is generated
+ * The emails are queued in memory and sent to Email_Queue by a background thread with SQS batch sends,
+ * up to 10 emails (the SQS maximum) per request, so the caller never waits on SQS.
+ * The returned future tells the caller when the email is really sent, the outbox relay waits on it before deleting the row.
  */
 @Service
 public class EmailServiceImpl implements EmailService{
 
     private static final Logger log = LoggerFactory.getLogger(EmailServiceImpl.class);
-
-    private final QueueMessagingTemplate queueMessagingTemplate;
-
-    public EmailServiceImpl(QueueMessagingTemplate queueMessagingTemplate) {
-        this.queueMessagingTemplate = queueMessagingTemplate;
+    private static final int SQS_MAX_BATCH_SIZE = 10;
+
+    private final AmazonSQSAsync amazonSQS;
+    private final ObjectMapper objectMapper;
+    private final String queueName;
+    private final long maxWaitMillis;
+    private final BlockingQueue<QueuedEmail> pending = new LinkedBlockingQueue<>();
+    private final Thread sender;
+    private volatile boolean running = true;
+    private volatile String queueUrl;
+
+    public EmailServiceImpl(AmazonSQSAsync amazonSQS, ObjectMapper objectMapper,
+                            @Value("${app.email.queue:Email_Queue}") String queueName,
+                            @Value("${app.email.batch.max-wait:200ms}") Duration maxWait) {
+        this.amazonSQS = amazonSQS;
+        this.objectMapper = objectMapper;
+        this.queueName = queueName;
+        this.maxWaitMillis = maxWait.toMillis();
+        this.sender = new Thread(this::run, "email-batch-sender");
+        this.sender.setDaemon(true);
+        this.sender.start();
     }
 
     @Override
-    public void sendEmail(String to, EmailType success, String submitter) {
-        String emailTemplate = success.content;
+    public CompletableFuture<Void> sendEmail(String to, EmailType type, String submitter) {
+        String emailTemplate = type.content;
         String emailBody = emailTemplate.replace("%NAME%", submitter);
         Email email = new Email();
         email.setTo(to);
         email.setFrom("chunliangyang8928@gmail.com");
-        email.setSubject("We did it!");
+        email.setSubject(type.subject);
         email.setBody(emailBody);
         email.setToken("12345");
-        send(email);
+        QueuedEmail queued = new QueuedEmail(email);
+        pending.add(queued);
+        return queued.sent;
+    }
+
+    /**
+     * Send what is still queued before the application stops
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        sender.join(maxWaitMillis + 5000);
+    }
+
+    private void run() {
+        while (running || !pending.isEmpty()) {
+            List<QueuedEmail> batch = new ArrayList<>(SQS_MAX_BATCH_SIZE);
+            try {
+                QueuedEmail first = pending.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + maxWaitMillis;
+                while (batch.size() < SQS_MAX_BATCH_SIZE) {
+                    QueuedEmail next = pending.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.drainTo(batch, SQS_MAX_BATCH_SIZE - batch.size());
+                running = false;
+            }
+            try {
+                send(batch);
+            } catch (Exception e) {
+                log.error("Cannot send {} emails: {}", batch.size(), batch, e);
+                batch.forEach(queued -> queued.sent.completeExceptionally(e));
+            }
+        }
     }
-    private void send(Object message) {
-        queueMessagingTemplate.convertAndSend("Email_Queue", message);
-        log.info("Email sent: {}", message);
-        String s = "{ \"token\": \"12345\", \"to\": \"youremail@gmail.com\", \"subject\": \"This is a test\", \"body\": \"<html>Hi <b>Dawei!</b></html>\" }";
+
+    private void send(List<QueuedEmail> batch) throws JsonProcessingException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            entries.add(new SendMessageBatchRequestEntry(String.valueOf(i), objectMapper.writeValueAsString(batch.get(i).email)));
+        }
+        SendMessageBatchResult result = amazonSQS.sendMessageBatch(new SendMessageBatchRequest(getQueueUrl(), entries));
+        log.info("Email sent: {} in one batch", result.getSuccessful().size());
+        for (SendMessageBatchResultEntry sent : result.getSuccessful()) {
+            batch.get(Integer.parseInt(sent.getId())).sent.complete(null);
+        }
+        for (BatchResultErrorEntry failed : result.getFailed()) {
+            // a failed entry is sent once more on its own, a second failure is left to the caller
+            QueuedEmail queued = batch.get(Integer.parseInt(failed.getId()));
+            log.warn("Email batch entry failed ({}), sending it again: {}", failed.getMessage(), queued.email);
+            try {
+                amazonSQS.sendMessage(getQueueUrl(), objectMapper.writeValueAsString(queued.email));
+                queued.sent.complete(null);
+            } catch (Exception e) {
+                log.error("Cannot send the email again: {}", queued.email, e);
+                queued.sent.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class QueuedEmail {
+        private final Email email;
+        private final CompletableFuture<Void> sent = new CompletableFuture<>();
+
+        private QueuedEmail(Email email) {
+            this.email = email;
+        }
+
+        @Override
+        public String toString() {
+            return email.toString();
+        }
+    }
+
+    private String getQueueUrl() {
+        if (queueUrl == null) {
+            queueUrl = amazonSQS.getQueueUrl(queueName).getQueueUrl();
+        }
+        return queueUrl;
     }
 }
 
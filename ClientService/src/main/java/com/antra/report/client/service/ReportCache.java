@@ -0,0 +1,66 @@
+package com.antra.report.client.service;
+
+import com.antra.report.client.pojo.reponse.ReportVO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * ReportCache keeps the ReportVO snapshots read by the status polling of single reports, keyed by reqId.
+ * The cache is bounded by app.report.cache.max-size and app.report.cache.expire-after-write,
+ * every write to a report must call {@link #evict(String)} so a poll never sees an outdated status for long.
+ * Hit, miss and eviction counts are published as the cache.* metrics with cache=report-vo.
+ */
+@Component
+public class ReportCache {
+    static final String CACHE_NAME = "report-vo";
+
+    private final Cache<String, ReportVO> cache;
+
+    public ReportCache(MeterRegistry meterRegistry,
+                       @Value("${app.report.cache.max-size:10000}") long maxSize,
+                       @Value("${app.report.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Get the cached report, or load it once for all concurrent callers if it is not cached
+     * @param reqId report id
+     * @param loader reads the report from the database, a null result is not cached
+     * @return cached or loaded report, null if the loader found nothing
+     */
+    public ReportVO get(String reqId, Function<String, ReportVO> loader) {
+        return cache.get(reqId, loader);
+    }
+
+    /**
+     * Drop the cached report now, and again after the running transaction commits or rolls back if there is one.
+     * The second eviction removes a snapshot that a concurrent poll read from the database before the commit.
+     * Call it after the report is written.
+     * @param reqId report id that has been changed
+     */
+    public void evict(String reqId) {
+        cache.invalidate(reqId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(reqId);
+                }
+            });
+        }
+    }
+}
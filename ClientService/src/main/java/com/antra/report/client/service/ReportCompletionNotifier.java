@@ -0,0 +1,56 @@
+package com.antra.report.client.service;
+
+import com.antra.report.client.entity.ReportStatus;
+import com.antra.report.client.pojo.EmailType;
+import com.antra.report.client.pojo.reponse.ReportVO;
+import com.antra.report.client.repository.ReportRequestRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * ReportCompletionNotifier sends one email per report, once both the PDF and the Excel file are completed or failed.
+ * It has to be called after the file update is committed. When the two responses of a report are handled at the same time,
+ * the check that runs after the second commit sees both files done, and the completionNotified flag makes sure that
+ * only one of the callers sends the email.
+ * The flag is claimed in the same transaction that writes the email to the {@link ReportOutbox}, the outbox relay sends it
+ * afterwards and retries it until Email_Queue accepted it. So a crash cannot leave a claimed report without its email.
+ */
+@Component
+public class ReportCompletionNotifier {
+    private static final Logger log = LoggerFactory.getLogger(ReportCompletionNotifier.class);
+
+    private final ReportRequestRepo reportRequestRepo;
+    private final ReportOutbox reportOutbox;
+
+    public ReportCompletionNotifier(ReportRequestRepo reportRequestRepo, ReportOutbox reportOutbox) {
+        this.reportRequestRepo = reportRequestRepo;
+        this.reportOutbox = reportOutbox;
+    }
+
+    /**
+     * Send the completion email of every given report whose files are all done and which has no email yet
+     * @param reqIds ids of reports with a file update committed just now
+     */
+    @Transactional
+    public void notifyIfComplete(Collection<String> reqIds) {
+        for (ReportVO report : reportRequestRepo.findReportVOsByReqIdIn(reqIds)) {
+            if (!isDone(report.getPdfReportStatus()) || !isDone(report.getExcelReportStatus())) {
+                continue;
+            }
+            if (reportRequestRepo.markCompletionNotified(report.getId()) == 0) {
+                continue; // the email of this report is already in the outbox
+            }
+            boolean completed = report.getPdfReportStatus() == ReportStatus.COMPLETED && report.getExcelReportStatus() == ReportStatus.COMPLETED;
+            log.info("Report {} is done, adding the {} email to the outbox", report.getId(), completed ? EmailType.SUCCESS : EmailType.FAILURE);
+            reportOutbox.addEmail(report.getId(), completed ? EmailType.SUCCESS : EmailType.FAILURE, report.getSubmitter());
+        }
+    }
+
+    private boolean isDone(ReportStatus status) {
+        return status == ReportStatus.COMPLETED || status == ReportStatus.FAILED;
+    }
+}
@@ -0,0 +1,110 @@
+package com.antra.report.client.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.antra.report.client.pojo.request.ReportRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ReportDataStore is the claim check of the report notifications. The data rows of a report larger than
+ * app.claim-check.threshold-bytes are written once as gzip compressed JSON to S3 (app.claim-check.bucket, under
+ * app.claim-check.prefix) or, with app.claim-check.store=local, to app.claim-check.local-dir, and the SNS message only
+ * carries the dataLocation pointer. PDFService and ExcelService load the rows from the pointer right before generating
+ * the file, and only from the same bucket and prefix (or directory, with their local profile active).
+ * The objects are not deleted here, the bucket or directory should expire them (e.g. with an S3 lifecycle rule).
+ */
+@Component
+public class ReportDataStore {
+    private static final Logger log = LoggerFactory.getLogger(ReportDataStore.class);
+
+    public enum Store { S3, LOCAL }
+
+    private final AmazonS3 s3Client;
+    private final ObjectMapper objectMapper;
+    private final Store store;
+    private final int thresholdBytes;
+    private final String bucket;
+    private final String prefix;
+    private final Path localDir;
+
+    public ReportDataStore(AmazonS3 s3Client, ObjectMapper objectMapper,
+                           @Value("${app.claim-check.store:s3}") Store store,
+                           @Value("${app.claim-check.threshold-bytes:65536}") int thresholdBytes,
+                           @Value("${app.claim-check.bucket:}") String bucket,
+                           @Value("${app.claim-check.prefix:report-data/}") String prefix,
+                           @Value("${app.claim-check.local-dir:${java.io.tmpdir}/report-data}") String localDir) {
+        this.s3Client = s3Client;
+        this.objectMapper = objectMapper;
+        this.store = store;
+        this.thresholdBytes = thresholdBytes;
+        this.bucket = bucket;
+        this.prefix = prefix;
+        this.localDir = Paths.get(localDir);
+    }
+
+    /**
+     * Move the data rows of the request to the store if they are larger than the threshold.
+     * The request then has no data and its dataLocation points to the stored rows, a small request is not changed.
+     * The key only depends on the report id, so publishing the same request again overwrites the same object.
+     * @param request report request about to be published
+     */
+    public void offloadIfLarge(ReportRequest request) {
+        if (request.getData() == null) {
+            return;
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request.getData());
+            if (json.length <= thresholdBytes) {
+                return;
+            }
+            byte[] compressed = gzip(json);
+            String location = store == Store.S3 ? writeS3(request.getReqId(), compressed) : writeLocal(request.getReqId(), compressed);
+            log.info("Offloaded {} bytes of report data ({} compressed) to {}", json.length, compressed.length, location);
+            request.setData(null);
+            request.setDataLocation(location);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot offload the data of report " + request.getReqId(), e);
+        }
+    }
+
+    private String writeS3(String reqId, byte[] compressed) {
+        if (bucket.isEmpty()) {
+            throw new IllegalStateException("app.claim-check.bucket is required to offload report data to S3");
+        }
+        String key = prefix + reqId + ".json.gz";
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(compressed.length);
+        metadata.setContentType("application/json");
+        metadata.setContentEncoding("gzip");
+        s3Client.putObject(bucket, key, new ByteArrayInputStream(compressed), metadata);
+        return "s3://" + bucket + "/" + key;
+    }
+
+    private String writeLocal(String reqId, byte[] compressed) throws IOException {
+        Files.createDirectories(localDir);
+        Path file = localDir.resolve(reqId + ".json.gz").toAbsolutePath();
+        Files.write(file, compressed);
+        return file.toUri().toString();
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,207 @@
+package com.antra.report.client.service;
+
+import com.antra.report.client.config.ThreadMode;
+import com.antra.report.client.config.VirtualThreads;
+import com.antra.report.client.exception.ServiceBusyException;
+import com.antra.report.client.pojo.FileType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReportDispatcher is the long-lived engine running the direct (sync) requests to ExcelService and PDFService.
+ * Each downstream service gets its own bounded pool (bulkhead), so a slow service cannot starve the other one,
+ * and a full pool rejects new work with {@link ServiceBusyException} instead of growing without bound.
+ * With app.threads.mode=virtual every task gets a new virtual thread instead of a pooled one, since a blocked virtual
+ * thread does not hold on to an OS thread. The bulkhead is then a semaphore of app.dispatch.virtual.max-concurrency permits:
+ * a task beyond the limit is rejected right away, there is no queue.
+ */
+@Component
+public class ReportDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(ReportDispatcher.class);
+
+    private final Map<FileType, Bulkhead> bulkheads = new EnumMap<>(FileType.class);
+
+    public ReportDispatcher(MeterRegistry meterRegistry,
+                            @Value("${app.threads.mode:platform}") ThreadMode threadMode,
+                            @Value("${app.dispatch.excel.pool-size:8}") int excelPoolSize,
+                            @Value("${app.dispatch.excel.queue-capacity:100}") int excelQueueCapacity,
+                            @Value("${app.dispatch.pdf.pool-size:8}") int pdfPoolSize,
+                            @Value("${app.dispatch.pdf.queue-capacity:100}") int pdfQueueCapacity,
+                            @Value("${app.dispatch.virtual.max-concurrency:10000}") int virtualMaxConcurrency) {
+        boolean virtual = threadMode == ThreadMode.VIRTUAL && VirtualThreads.isSupported();
+        if (threadMode == ThreadMode.VIRTUAL && !virtual) {
+            log.warn("app.threads.mode=virtual needs Java 21 or later, report dispatch keeps using platform threads");
+        }
+        bulkheads.put(FileType.EXCEL, virtual ? new VirtualBulkhead("excel-service", virtualMaxConcurrency, meterRegistry)
+                : new PoolBulkhead("excel-service", excelPoolSize, excelQueueCapacity, meterRegistry));
+        bulkheads.put(FileType.PDF, virtual ? new VirtualBulkhead("pdf-service", virtualMaxConcurrency, meterRegistry)
+                : new PoolBulkhead("pdf-service", pdfPoolSize, pdfQueueCapacity, meterRegistry));
+    }
+
+    /**
+     * Run the task on the bulkhead of the service generating the given file type
+     * @param type decides which downstream service the task talks to
+     * @param task the request to the downstream service
+     * @return future completed when the task is done, or completed exceptionally with ServiceBusyException if rejected
+     */
+    public CompletableFuture<Void> dispatch(FileType type, Runnable task) {
+        return bulkheads.get(type).submit(task);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+    }
+
+    private abstract static class Bulkhead {
+        final String serviceName;
+        private final AtomicLong rejected = new AtomicLong();
+
+        Bulkhead(String serviceName, MeterRegistry meterRegistry) {
+            this.serviceName = serviceName;
+            Gauge.builder("report.dispatch.active", this, Bulkhead::active)
+                    .description("Requests currently running against the downstream service")
+                    .tag("service", serviceName).register(meterRegistry);
+            Gauge.builder("report.dispatch.queued", this, Bulkhead::queued)
+                    .description("Requests waiting for a free dispatch thread")
+                    .tag("service", serviceName).register(meterRegistry);
+            FunctionCounter.builder("report.dispatch.rejected", rejected, AtomicLong::get)
+                    .description("Requests rejected because the bulkhead was full")
+                    .tag("service", serviceName).register(meterRegistry);
+        }
+
+        abstract CompletableFuture<Void> submit(Runnable task);
+
+        abstract int active();
+
+        abstract int queued();
+
+        abstract void shutdown();
+
+        CompletableFuture<Void> reject() {
+            rejected.incrementAndGet();
+            log.warn("Dispatch to {} rejected, active: {}, queued: {}", serviceName, active(), queued());
+            CompletableFuture<Void> busy = new CompletableFuture<>();
+            busy.completeExceptionally(new ServiceBusyException(serviceName + " is busy, please try again later"));
+            return busy;
+        }
+    }
+
+    /**
+     * Fixed pool of platform threads with a bounded queue
+     */
+    private static class PoolBulkhead extends Bulkhead {
+        private final ThreadPoolExecutor executor;
+
+        PoolBulkhead(String serviceName, int poolSize, int queueCapacity, MeterRegistry meterRegistry) {
+            super(serviceName, meterRegistry);
+            this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory(serviceName),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        CompletableFuture<Void> submit(Runnable task) {
+            try {
+                return CompletableFuture.runAsync(task, executor);
+            } catch (RejectedExecutionException e) {
+                return reject();
+            }
+        }
+
+        @Override
+        int active() {
+            return executor.getActiveCount();
+        }
+
+        @Override
+        int queued() {
+            return executor.getQueue().size();
+        }
+
+        @Override
+        void shutdown() {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * A new virtual thread per task, the semaphore bounds how many run at the same time
+     */
+    private static class VirtualBulkhead extends Bulkhead {
+        private final Executor executor;
+        private final Semaphore permits;
+        private final int maxConcurrency;
+
+        VirtualBulkhead(String serviceName, int maxConcurrency, MeterRegistry meterRegistry) {
+            super(serviceName, meterRegistry);
+            this.executor = VirtualThreads.perTaskExecutor("dispatch-" + serviceName + "-");
+            this.permits = new Semaphore(maxConcurrency);
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        @Override
+        CompletableFuture<Void> submit(Runnable task) {
+            if (!permits.tryAcquire()) {
+                return reject();
+            }
+            try {
+                return CompletableFuture.runAsync(task, executor).whenComplete((v, e) -> permits.release());
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        int active() {
+            return maxConcurrency - permits.availablePermits();
+        }
+
+        @Override
+        int queued() {
+            return 0;
+        }
+
+        @Override
+        void shutdown() {
+            // nothing is pooled, running tasks finish on their own threads
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String serviceName) {
+            this.prefix = "dispatch-" + serviceName + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
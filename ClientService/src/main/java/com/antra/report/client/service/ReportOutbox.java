@@ -0,0 +1,242 @@
+package com.antra.report.client.service;
+
+import com.antra.report.client.entity.OutboxMessageEntity;
+import com.antra.report.client.entity.OutboxMessageType;
+import com.antra.report.client.pojo.EmailType;
+import com.antra.report.client.pojo.request.ReportRequest;
+import com.antra.report.client.repository.OutboxMessageRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PreDestroy;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * ReportOutbox is the transactional outbox of the SNS report notifications and of the report completion emails.
+ * {@link #add(ReportRequest)} stores the notification in the transaction that stores the report, so the request
+ * only waits for the local commit and nothing is published for a report that rolled back.
+ * {@link #addEmail(String, EmailType, String)} stores the completion email in the transaction that claims it, so a crash
+ * after the claim cannot lose the email.
+ * The relay publishes the stored notifications in batches and removes them once SNS accepted them (at least once delivery).
+ * A notification that failed app.outbox.max-attempts times is parked: it stays in the table but is not retried,
+ * so one poison message does not block the relay forever. Set parked back to false to publish it again.
+ * A relay leases a batch for app.outbox.claim-timeout before publishing it, so the relay can run on several instances.
+ * The lease has to outlast the publish of a batch, a message still publishing after it expired can be published twice.
+ * The age of the oldest waiting notification is published as the report.outbox.lag metric, the number of parked ones as report.outbox.parked.
+ */
+@Component
+public class ReportOutbox {
+    private static final Logger log = LoggerFactory.getLogger(ReportOutbox.class);
+    private static final String EMAIL_TO = "youremail@gmail.com";
+    private static final long EMAIL_SEND_TIMEOUT_SECONDS = 30;
+
+    private final OutboxMessageRepo outboxMessageRepo;
+    private final SNSService snsService;
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration claimTimeout;
+    private final long metricsRefreshMillis;
+    private final String relayId = UUID.randomUUID().toString();
+    private long nextMetricsRefresh;
+    private final ExecutorService publishExecutor;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong parkedMessages = new AtomicLong();
+    private final Counter published;
+    private final Counter failed;
+
+    public ReportOutbox(OutboxMessageRepo outboxMessageRepo, SNSService snsService, EmailService emailService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                        @Value("${app.outbox.batch-size:50}") int batchSize,
+                        @Value("${app.outbox.publish-concurrency:8}") int publishConcurrency,
+                        @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                        @Value("${app.outbox.claim-timeout:5m}") Duration claimTimeout,
+                        @Value("${app.outbox.metrics-refresh:60s}") Duration metricsRefresh) {
+        this.outboxMessageRepo = outboxMessageRepo;
+        this.snsService = snsService;
+        this.emailService = emailService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.claimTimeout = claimTimeout;
+        this.metricsRefreshMillis = metricsRefresh.toMillis();
+        this.publishExecutor = Executors.newFixedThreadPool(publishConcurrency, r -> {
+            Thread thread = new Thread(r, "outbox-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        TimeGauge.builder("report.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest report notification not yet published to SNS")
+                .register(meterRegistry);
+        Gauge.builder("report.outbox.parked", parkedMessages, AtomicLong::get)
+                .description("Report notifications given up after app.outbox.max-attempts failed publishes")
+                .register(meterRegistry);
+        this.published = Counter.builder("report.outbox.published").description("Report notifications published to SNS").register(meterRegistry);
+        this.failed = Counter.builder("report.outbox.failed").description("Report notification publish attempts that failed").register(meterRegistry);
+    }
+
+    /**
+     * Store the notification of the report request, it has to join the transaction saving the report
+     * @param request report request to send to PDFService and ExcelService
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(ReportRequest request) {
+        OutboxMessageEntity message = new OutboxMessageEntity();
+        message.setReqId(request.getReqId());
+        try {
+            message.setPayload(objectMapper.writeValueAsString(request));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        message.setCreatedTime(LocalDateTime.now());
+        outboxMessageRepo.save(message);
+    }
+
+    /**
+     * Store the completion email of the report, it has to join the transaction claiming the email
+     * @param reqId report the email is about
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addEmail(String reqId, EmailType type, String submitter) {
+        OutboxMessageEntity message = new OutboxMessageEntity();
+        message.setReqId(reqId);
+        message.setType(OutboxMessageType.EMAIL);
+        try {
+            message.setPayload(objectMapper.writeValueAsString(new EmailMessage(EMAIL_TO, type, submitter)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        message.setCreatedTime(LocalDateTime.now());
+        outboxMessageRepo.save(message);
+    }
+
+    /**
+     * Publish the waiting messages, oldest first, until the outbox is empty or a publish fails.
+     * Each batch is leased to this relay first, so several instances can run the relay without publishing a message twice
+     * while the lease lasts. The messages of a batch are published concurrently, then the published ones are deleted with one statement.
+     * An empty outbox costs a single query: the lag is only read when a batch was found, and the parked count is kept
+     * up to date by the relay itself and recounted every app.outbox.metrics-refresh.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval:200}")
+    public void relay() {
+        boolean found = false;
+        boolean drained = false;
+        while (!drained) {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxMessageEntity> available = outboxMessageRepo.findAvailable(now, PageRequest.of(0, batchSize));
+            if (available.isEmpty()) {
+                break;
+            }
+            found = true;
+            List<Long> ids = available.stream().map(OutboxMessageEntity::getId).collect(Collectors.toList());
+            if (outboxMessageRepo.claim(ids, relayId, now, now.plus(claimTimeout)) == 0) {
+                break; // another relay was faster
+            }
+            boolean allPublished = publish(outboxMessageRepo.findAllByClaimedByAndIdInOrderByIdAsc(relayId, ids));
+            // stop on failures and let the next run retry instead of spinning on a broken SNS
+            drained = available.size() < batchSize || !allPublished;
+        }
+        long nowMillis = System.currentTimeMillis();
+        boolean refresh = nowMillis >= nextMetricsRefresh;
+        if (found || refresh) {
+            lagMillis.set(outboxMessageRepo.findFirstByParkedFalseOrderByIdAsc()
+                    .map(oldest -> Duration.between(oldest.getCreatedTime(), LocalDateTime.now()).toMillis())
+                    .orElse(0L));
+        } else {
+            lagMillis.set(0);
+        }
+        if (refresh) {
+            parkedMessages.set(outboxMessageRepo.countByParkedTrue());
+            nextMetricsRefresh = nowMillis + metricsRefreshMillis;
+        }
+    }
+
+    private boolean publish(List<OutboxMessageEntity> batch) {
+        List<CompletableFuture<Boolean>> publishes = new ArrayList<>(batch.size());
+        for (OutboxMessageEntity message : batch) {
+            publishes.add(CompletableFuture.supplyAsync(() -> publish(message), publishExecutor));
+        }
+        List<Long> publishedIds = new ArrayList<>(batch.size());
+        List<Long> failedIds = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            (publishes.get(i).join() ? publishedIds : failedIds).add(batch.get(i).getId());
+        }
+        if (!publishedIds.isEmpty()) {
+            outboxMessageRepo.deleteByIdIn(publishedIds);
+            published.increment(publishedIds.size());
+        }
+        if (!failedIds.isEmpty()) {
+            outboxMessageRepo.incrementAttempts(failedIds);
+            failed.increment(failedIds.size());
+            int parked = outboxMessageRepo.parkExhausted(failedIds, maxAttempts);
+            parkedMessages.addAndGet(parked);
+            if (parked > 0) {
+                log.error("Parked {} outbox messages that failed {} times", parked, maxAttempts);
+            }
+        }
+        return failedIds.isEmpty();
+    }
+
+    private boolean publish(OutboxMessageEntity message) {
+        try {
+            if (message.getType() == OutboxMessageType.EMAIL) {
+                EmailMessage email = objectMapper.readValue(message.getPayload(), EmailMessage.class);
+                emailService.sendEmail(email.to, email.type, email.submitter).get(EMAIL_SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                log.info("Send the {} email of report {}", email.type, message.getReqId());
+            } else {
+                snsService.sendReportNotification(objectMapper.readValue(message.getPayload(), ReportRequest.class));
+                log.info("Send SNS the message of report {}", message.getReqId());
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Cannot publish the {} message of report {}, attempt {}", message.getType(), message.getReqId(), message.getAttempts() + 1, e);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publishExecutor.shutdown();
+    }
+
+    /**
+     * Payload of an email message
+     */
+    static class EmailMessage {
+        public String to;
+        public EmailType type;
+        public String submitter;
+
+        public EmailMessage() {
+        }
+
+        EmailMessage(String to, EmailType type, String submitter) {
+            this.to = to;
+            this.type = type;
+            this.submitter = submitter;
+        }
+    }
+}
@@ -1,25 +1,36 @@
 package com.antra.report.client.service;
 
+import com.antra.report.client.entity.ReportStatus;
 import com.antra.report.client.pojo.FileType;
+import com.antra.report.client.pojo.reponse.ReportFileVO;
+import com.antra.report.client.pojo.reponse.ReportPageVO;
 import com.antra.report.client.pojo.reponse.ReportVO;
 import com.antra.report.client.pojo.reponse.SqsResponse;
 import com.antra.report.client.pojo.request.ReportRequest;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
 
 import java.io.InputStream;
+import java.net.URL;
 import java.util.List;
 
 public interface ReportService {
     ReportVO generateReportsSync(ReportRequest request);
 
+    Mono<ReportVO> generateReportsSyncReactive(ReportRequest request);
+
     ReportVO generateReportsAsync(ReportRequest request);
 
     void updateReportFromResponse(SqsResponse response, FileType type);
 
     void updateReportFileData(SqsResponse response, FileType type);
 
+    void updateReportsFromResponses(List<SqsResponse> responses, FileType type);
+
     List<ReportVO> getReportList();
 
+    ReportPageVO getReportPage(String submitter, ReportStatus status, String cursor, int size);
+
     ReportVO getReport(String reqId);
 
     String deleteReport(String reqId);
@@ -28,5 +39,9 @@ public interface ReportService {
 
     InputStream getFileBodyByReqId(String reqId, FileType type);
 
+    URL getFileUrlByReqId(String reqId, FileType type);
+
+    ReportFileVO getFileByReqId(String reqId, FileType type);
+
 
 }
@@ -1,12 +1,18 @@
 package com.antra.report.client.service;
 
+import com.amazonaws.HttpMethod;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.ResponseHeaderOverrides;
 import com.antra.report.client.entity.*;
+import com.antra.report.client.exception.InvalidCursorException;
 import com.antra.report.client.exception.RequestNotFoundException;
-import com.antra.report.client.pojo.EmailType;
+import com.antra.report.client.exception.ServiceBusyException;
 import com.antra.report.client.pojo.FileType;
 import com.antra.report.client.pojo.reponse.ExcelResponse;
 import com.antra.report.client.pojo.reponse.PDFResponse;
+import com.antra.report.client.pojo.reponse.ReportFileVO;
+import com.antra.report.client.pojo.reponse.ReportPageVO;
 import com.antra.report.client.pojo.reponse.ReportVO;
 import com.antra.report.client.pojo.reponse.SqsResponse;
 import com.antra.report.client.pojo.request.ReportRequest;
@@ -17,22 +23,36 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -43,10 +63,16 @@ import java.util.stream.Collectors;
 public class ReportServiceImpl implements ReportService {
     private static final Logger log = LoggerFactory.getLogger(ReportServiceImpl.class);
 
+    private static final String PDF_CONTENT_TYPE = "application/pdf";
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final String ZIP_CONTENT_TYPE = "application/zip";
+
     private final ReportRequestRepo reportRequestRepo;
-    private final SNSService snsService;
+    private final ReportOutbox reportOutbox;
     private final AmazonS3 s3Client;
-    private final EmailService emailService;
+    private final ReportCompletionNotifier completionNotifier;
+    private final ReportDispatcher reportDispatcher;
+    private final ReportCache reportCache;
 
     @Autowired
     private EurekaClient pdfClient;
@@ -57,11 +83,31 @@ public class ReportServiceImpl implements ReportService {
     @Autowired
     private RestTemplate restTemplate;
 
-    public ReportServiceImpl(ReportRequestRepo reportRequestRepo, SNSService snsService, AmazonS3 s3Client, EmailService emailService) {
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.report.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${app.download.url-ttl:5m}")
+    private Duration downloadUrlTtl;
+
+    @Value("${app.sync.excel-timeout:60s}")
+    private Duration excelTimeout;
+
+    @Value("${app.sync.pdf-timeout:60s}")
+    private Duration pdfTimeout;
+
+    public ReportServiceImpl(ReportRequestRepo reportRequestRepo, ReportOutbox reportOutbox, AmazonS3 s3Client, ReportCompletionNotifier completionNotifier, ReportDispatcher reportDispatcher, ReportCache reportCache) {
         this.reportRequestRepo = reportRequestRepo;
-        this.snsService = snsService;
+        this.reportOutbox = reportOutbox;
         this.s3Client = s3Client;
-        this.emailService = emailService;
+        this.completionNotifier = completionNotifier;
+        this.reportDispatcher = reportDispatcher;
+        this.reportCache = reportCache;
     }
 
     /**
@@ -80,12 +126,14 @@ public class ReportServiceImpl implements ReportService {
         reportRequestEntity.getPdfReport().setCreatedTime(LocalDateTime.now());
         reportRequestEntity.getExcelReport().setCreatedTime(LocalDateTime.now());
         reportRequestEntity.setCreatedTime(LocalDateTime.now());
+        reportRequestEntity.setCompletionNotified(false);
 
         reportRequestRepo.save(reportRequestEntity);
+        reportCache.evict(reqId);
 
         request.setReqId(reqId);
-        snsService.sendReportNotification(request);
-        log.info("Send SNS the message: {}",request);
+        reportOutbox.add(request);
+        log.info("Add the SNS message to the outbox: {}",request);
         return new ReportVO(reportRequestEntity);
     }
 
@@ -136,41 +184,102 @@ public class ReportServiceImpl implements ReportService {
         return new ReportVO(reportRequestRepo.findById(request.getReqId()).orElseThrow());
     }
 
+    /**
+     * Non-blocking version of {@link #generateReportsSync(ReportRequest)}
+     * The requests to Excel and PDF Services are sent at the same time through the load balanced WebClient, no thread waits for
+     * their responses. Only the short database work runs on the bounded elastic scheduler.
+     * @param request user's report request
+     * @return the requesting report data once both report files are generated or failed
+     */
+    @Override
+    public Mono<ReportVO> generateReportsSyncReactive(ReportRequest request) {
+        return Mono.fromCallable(() -> persistToLocal(request))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(entity -> Mono.zip(sendReactiveExcelRequest(request), sendReactivePDFRequest(request)))
+                .publishOn(Schedulers.boundedElastic())
+                .map(responses -> new ReportVO(reportRequestRepo.findById(request.getReqId()).orElseThrow()));
+    }
+
+    /**
+     * Send ReportRequest to ExcelService without blocking and set the report file location to stored ReportEntity
+     * @param reportRequest desired
+     * @return the ExcelService response, marked as failed if the call failed or timed out
+     */
+    private Mono<ExcelResponse> sendReactiveExcelRequest(ReportRequest reportRequest) {
+        return webClientBuilder.build().post().uri("http://excel-service/excel")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(reportRequest)
+                .retrieve()
+                .bodyToMono(ExcelResponse.class)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty response from excel-service")))
+                .timeout(excelTimeout)
+                .onErrorResume(e -> {
+                    log.error("Excel Generation Error (Sync) : e", e);
+                    ExcelResponse excelResponse = new ExcelResponse();
+                    excelResponse.setReqId(reportRequest.getReqId());
+                    excelResponse.setFailed(true);
+                    return Mono.just(excelResponse);
+                })
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(this::updateLocal);
+    }
+
+    /**
+     * Send ReportRequest to PDFService without blocking and set the report file location to stored ReportEntity
+     * @param reportRequest desired
+     * @return the PDFService response, marked as failed if the call failed or timed out
+     */
+    private Mono<PDFResponse> sendReactivePDFRequest(ReportRequest reportRequest) {
+        return webClientBuilder.build().post().uri("http://pdf-service/pdf")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(reportRequest)
+                .retrieve()
+                .bodyToMono(PDFResponse.class)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty response from pdf-service")))
+                .timeout(pdfTimeout)
+                .onErrorResume(e -> {
+                    log.error("PDF Generation Error (Sync) : e", e);
+                    PDFResponse pdfResponse = new PDFResponse();
+                    pdfResponse.setReqId(reportRequest.getReqId());
+                    pdfResponse.setFailed(true);
+                    return Mono.just(pdfResponse);
+                })
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(this::updateLocal);
+    }
+
     /**
      * Create report files through Excel and PDF Services and get the response data, which may contain the saved file location
      * Update the ExcelReportEntity and PDFReportEntity in the previous saved RequestReportEntity
      * @param reportRequest user's report request
+     * @throws ServiceBusyException if ExcelService or PDFService has no dispatch capacity left
      */
-    //TODO:Change to parallel process using Threadpool? CompletableFuture?
     private void sendDirectRequestsParallel(ReportRequest reportRequest) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         HttpEntity<ReportRequest> httpEntity = new HttpEntity<>(reportRequest, headers);
-        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
-        CompletableFuture<Void> excelReportFuture = sendDirectExcelRequest(reportRequest, httpEntity, executor);
-        CompletableFuture<Void> pdfReportFuture = sendDirectPDFRequest(reportRequest, httpEntity, executor);
+        CompletableFuture<Void> excelReportFuture = sendDirectExcelRequest(reportRequest, httpEntity);
+        CompletableFuture<Void> pdfReportFuture = sendDirectPDFRequest(reportRequest, httpEntity);
 
         CompletableFuture<Void> reportFuture = CompletableFuture.allOf(excelReportFuture, pdfReportFuture);
         try {
-            reportFuture.get();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        } catch (ExecutionException e) {
-            e.printStackTrace();
+            reportFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ServiceBusyException) {
+                throw (ServiceBusyException) e.getCause();
+            }
+            log.error("Report Generation Error (Sync)", e);
         }
-
-
     }
 
     /**
      * Send ReportRequest to PDFService to generate the excel report directly through API and set the report file location to stored ReportEntity
      * @param reportRequest desired
      * @param httpEntity
-     * @param executor
-     * @return
+     * @return future completed when the PDF report is updated, failed with ServiceBusyException if PDFService is busy
      */
-    private CompletableFuture<Void> sendDirectPDFRequest(ReportRequest reportRequest, HttpEntity<ReportRequest> httpEntity, ThreadPoolExecutor executor) {
-        CompletableFuture<Void> pdfReportFuture = CompletableFuture.runAsync(() -> {
+    private CompletableFuture<Void> sendDirectPDFRequest(ReportRequest reportRequest, HttpEntity<ReportRequest> httpEntity) {
+        return reportDispatcher.dispatch(FileType.PDF, () -> {
             PDFResponse pdfResponse = new PDFResponse();
             String url = pdfClient.getNextServerFromEureka("pdf-service", false).getHomePageUrl();
             log.info("Get PDF Service url: " + url);
@@ -183,19 +292,24 @@ public class ReportServiceImpl implements ReportService {
             } finally {
                 updateLocal(pdfResponse);
             }
-        }, executor);
-        return pdfReportFuture;
+        }).whenComplete((v, e) -> {
+            if (e instanceof ServiceBusyException) {
+                PDFResponse pdfResponse = new PDFResponse();
+                pdfResponse.setReqId(reportRequest.getReqId());
+                pdfResponse.setFailed(true);
+                updateLocal(pdfResponse);
+            }
+        });
     }
 
     /**
      * Send ReportRequest to ExcelService to generate the excel report directly through API and set the report file location to stored ReportEntity
      * @param reportRequest desired
      * @param httpEntity
-     * @param executor
-     * @return
+     * @return future completed when the Excel report is updated, failed with ServiceBusyException if ExcelService is busy
      */
-    private CompletableFuture<Void> sendDirectExcelRequest(ReportRequest reportRequest, HttpEntity<ReportRequest> httpEntity, ThreadPoolExecutor executor) {
-        CompletableFuture<Void> excelReportFuture = CompletableFuture.runAsync(() -> {
+    private CompletableFuture<Void> sendDirectExcelRequest(ReportRequest reportRequest, HttpEntity<ReportRequest> httpEntity) {
+        return reportDispatcher.dispatch(FileType.EXCEL, () -> {
             ExcelResponse excelResponse = new ExcelResponse();
             String url = excelClient.getNextServerFromEureka("excel-service", false).getHomePageUrl();
             log.info("Get Excel Service url: " + url);
@@ -209,8 +323,14 @@ public class ReportServiceImpl implements ReportService {
                 updateLocal(excelResponse);
             }
 
-        }, executor);
-        return excelReportFuture;
+        }).whenComplete((v, e) -> {
+            if (e instanceof ServiceBusyException) {
+                ExcelResponse excelResponse = new ExcelResponse();
+                excelResponse.setReqId(reportRequest.getReqId());
+                excelResponse.setFailed(true);
+                updateLocal(excelResponse);
+            }
+        });
     }
 
     /**
@@ -271,7 +391,8 @@ public class ReportServiceImpl implements ReportService {
 
     /**
      * Create a simple RequestReportEntity without PDFReportEntity and ExcelReportEntity
-     * Send the request to SNS to assign report request to PDF and Excel Services
+     * Store the SNS message assigning the report request to PDF and Excel Services in the outbox of the same transaction,
+     * the ReportOutbox relay publishes it after the commit
      * After the file is generated, the file location will be updated in the RequestReportEntity
      * @param request user's report request
      * @return the requesting report data which may contain the report file location for future download
@@ -280,28 +401,59 @@ public class ReportServiceImpl implements ReportService {
     @Transactional
     public ReportVO generateReportsAsync(ReportRequest request) {
         ReportRequestEntity entity = persistToLocal(request);
-        snsService.sendReportNotification(request);
-        log.info("Send SNS the message: {}",request);
+        reportOutbox.add(request);
+        log.info("Add the SNS message to the outbox: {}",request);
         return new ReportVO(entity);
     }
 
     /**
-     * Update the PDFEntity in the previous saved ReportRequestEntity if the file is successfully generated
-     * Send an email afterward.
-     * @param response SqsResponse that converted from the PDFService response
+     * Update the PDFEntity or ExcelEntity in the previous saved ReportRequestEntity with the response of the generator.
+     * Send one email afterward once both files of the report are done.
+     * @param response SqsResponse that converted from the PDFService or ExcelService response
      */
     @Override
-     // why this? email could fail
     public void updateReportFromResponse(SqsResponse response, FileType type) {
         updateReportFileData(response, type);
-        String submitter = reportRequestRepo.findById(response.getReqId()).orElseThrow(RequestNotFoundException::new).getSubmitter();
-        sendReportEmail(submitter);
+        completionNotifier.notifyIfComplete(List.of(response.getReqId()));
     }
 
     @Override
     @Transactional
     public void updateReportFileData(SqsResponse response, FileType type) {
         ReportRequestEntity entity = reportRequestRepo.findById(response.getReqId()).orElseThrow(RequestNotFoundException::new);
+        applyResponse(entity, response, type);
+        reportRequestRepo.save(entity);
+        reportCache.evict(entity.getReqId());
+    }
+
+    /**
+     * Apply a batch of responses of one file type in a single transaction, the reports are loaded by one query
+     * and the updates are flushed together as JDBC batches. After the commit, send the email of every report that is now done.
+     * @param responses SqsResponses converted from the PDFService or ExcelService responses
+     * @param type file type of all the responses
+     * @throws RequestNotFoundException if any response belongs to an unknown report, nothing of the batch is applied then
+     */
+    @Override
+    public void updateReportsFromResponses(List<SqsResponse> responses, FileType type) {
+        transactionTemplate.execute(status -> {
+            Set<String> reqIds = responses.stream().map(SqsResponse::getReqId).collect(Collectors.toSet());
+            Map<String, ReportRequestEntity> entities = reportRequestRepo.findAllWithFilesByReqIdIn(reqIds).stream()
+                    .collect(Collectors.toMap(ReportRequestEntity::getReqId, Function.identity()));
+            for (SqsResponse response : responses) {
+                ReportRequestEntity entity = entities.get(response.getReqId());
+                if (entity == null) {
+                    throw new RequestNotFoundException();
+                }
+                applyResponse(entity, response, type);
+            }
+            reportRequestRepo.saveAll(entities.values());
+            entities.keySet().forEach(reportCache::evict);
+            return null;
+        });
+        completionNotifier.notifyIfComplete(responses.stream().map(SqsResponse::getReqId).collect(Collectors.toSet()));
+    }
+
+    private void applyResponse(ReportRequestEntity entity, SqsResponse response, FileType type) {
         BaseReportEntity report = null;
         if (type == FileType.PDF) {
             report = entity.getPdfReport();
@@ -317,18 +469,20 @@ public class ReportServiceImpl implements ReportService {
             report.setFileId(response.getFileId());
             report.setFileLocation(response.getFileLocation());
             report.setFileSize(response.getFileSize());
+            report.setFileName(response.getFileName());
+            report.setContentType(contentType(response, type));
         }
         entity.setUpdatedTime(LocalDateTime.now());
-        reportRequestRepo.save(entity);
     }
 
     /**
-     * Send report email
-     * @param submitter
+     * ExcelService lists the workbooks in fileParts when it split a huge report and stored them as one zip
      */
-    private void sendReportEmail(String submitter) {
-        String to = "youremail@gmail.com";
-        emailService.sendEmail(to, EmailType.SUCCESS, submitter);
+    private static String contentType(SqsResponse response, FileType type) {
+        if (type == FileType.PDF) {
+            return PDF_CONTENT_TYPE;
+        }
+        return response.getFileParts() != null && !response.getFileParts().isEmpty() ? ZIP_CONTENT_TYPE : XLSX_CONTENT_TYPE;
     }
 
 
@@ -358,26 +512,79 @@ public class ReportServiceImpl implements ReportService {
 
 
     /**
-     * Get all ReportRequestEntity and map them into ReportValueObject in list
+     * Get all reports as ReportValueObject in list, read by a single projection query
      * @return ReportValueObject in list
      */
     @Override
     @Transactional(readOnly = true)
     public List<ReportVO> getReportList() {
-        return reportRequestRepo.findAll().stream().map(ReportVO::new).collect(Collectors.toList());
+        return reportRequestRepo.findAllReportVOs();
+    }
+
+    /**
+     * Get one page of reports, newest first, read by a single keyset projection query
+     * @param submitter only list reports of this submitter if not null
+     * @param status only list reports with a PDF or Excel file in this status if not null
+     * @param cursor nextCursor of the previous page, null for the first page
+     * @param size number of reports in the page, at most app.report.page.max-size are returned
+     * @return the page with the cursor of the next page
+     * @throws InvalidCursorException if the cursor was not returned by an earlier page or the size is not positive
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ReportPageVO getReportPage(String submitter, ReportStatus status, String cursor, int size) {
+        if (size < 1) {
+            throw new InvalidCursorException("Invalid report page size: " + size);
+        }
+        int pageSize = Math.min(size, maxPageSize);
+        LocalDateTime afterCreatedTime = null;
+        String afterReqId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            afterCreatedTime = LocalDateTime.parse(position[0]);
+            afterReqId = position[1];
+        }
+        // fetch one more row to know whether there is a next page
+        List<ReportVO> reports = reportRequestRepo.findReportVOPage(submitter, status, afterCreatedTime, afterReqId, PageRequest.of(0, pageSize + 1));
+        if (reports.size() <= pageSize) {
+            return new ReportPageVO(reports, null);
+        }
+        List<ReportVO> page = reports.subList(0, pageSize);
+        ReportVO last = page.get(pageSize - 1);
+        return new ReportPageVO(new ArrayList<>(page), encodeCursor(last.getCreatedTime(), last.getId()));
     }
 
+    private String encodeCursor(LocalDateTime createdTime, String reqId) {
+        String position = createdTime + "|" + reqId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (position.length != 2) {
+                throw new InvalidCursorException("Invalid report cursor: " + cursor);
+            }
+            LocalDateTime.parse(position[0]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid report cursor: " + cursor, e);
+        }
+    }
 
     /**
-     * Get single report by Id
+     * Get single report by Id, served from the ReportCache while the report is not changed
      * @param reqId report id
      * @return report value object
+     * @throws RequestNotFoundException if there is no report with this id
      */
     @Override
-    @Transactional(readOnly = true)
     public ReportVO getReport(String reqId) {
-        return new ReportVO(reportRequestRepo.findById(reqId).orElse(null));
-
+        ReportVO report = reportCache.get(reqId, id -> reportRequestRepo.findReportVOById(id).orElse(null));
+        if (report == null) {
+            throw new RequestNotFoundException();
+        }
+        return report;
     }
 
     /**
@@ -389,6 +596,7 @@ public class ReportServiceImpl implements ReportService {
     @Transactional
     public String deleteReport(String reqId) {
         reportRequestRepo.deleteById(reqId);
+        reportCache.evict(reqId);
         return "report " + reqId + " is deleted.";
     }
 
@@ -430,6 +638,52 @@ public class ReportServiceImpl implements ReportService {
         }
         return null;
     }
+
+    /**
+     * Create a short-lived presigned URL of the report file, so the client downloads it straight from S3
+     * @param reqId required report id
+     * @param type desired report type, either PDF or Excel
+     * @return URL valid for app.download.url-ttl
+     */
+    @Override
+    public URL getFileUrlByReqId(String reqId, FileType type) {
+        ReportRequestEntity entity = reportRequestRepo.findById(reqId).orElseThrow(RequestNotFoundException::new);
+        BaseReportEntity report = type == FileType.PDF ? entity.getPdfReport() : entity.getExcelReport();
+        String fileLocation = report.getFileLocation(); // this location is s3 "bucket/key"
+        if (fileLocation == null) {
+            throw new RequestNotFoundException();
+        }
+        String[] location = fileLocation.split("/", 2);
+        GeneratePresignedUrlRequest presignRequest = new GeneratePresignedUrlRequest(location[0], location[1], HttpMethod.GET)
+                .withExpiration(Date.from(Instant.now().plus(downloadUrlTtl)));
+        ReportFileVO file = fileOf(report, type);
+        presignRequest.setResponseHeaders(new ResponseHeaderOverrides()
+                .withContentType(file.getContentType())
+                .withContentDisposition("attachment; filename=\"" + file.getFileName() + "\""));
+        return s3Client.generatePresignedUrl(presignRequest);
+    }
+
+    /**
+     * Get the name and content type the generator stored the report file with
+     * @param reqId required report id
+     * @param type desired report type, either PDF or Excel
+     * @return file name and content type
+     */
+    @Override
+    public ReportFileVO getFileByReqId(String reqId, FileType type) {
+        ReportRequestEntity entity = reportRequestRepo.findById(reqId).orElseThrow(RequestNotFoundException::new);
+        return fileOf(type == FileType.PDF ? entity.getPdfReport() : entity.getExcelReport(), type);
+    }
+
+    /**
+     * PDFService does not send a file name, neither did the reports generated before it was stored: they are report.pdf or report.xlsx
+     */
+    private static ReportFileVO fileOf(BaseReportEntity report, FileType type) {
+        if (report.getFileName() != null && report.getContentType() != null) {
+            return new ReportFileVO(report.getFileName(), report.getContentType());
+        }
+        return type == FileType.PDF ? new ReportFileVO("report.pdf", PDF_CONTENT_TYPE) : new ReportFileVO("report.xlsx", XLSX_CONTENT_TYPE);
+    }
 }
 
 /**
@@ -11,13 +11,15 @@ import org.springframework.stereotype.Service;
 public class SNSServiceImpl implements SNSService {
 
     private final NotificationMessagingTemplate notificationMessagingTemplate;
+    private final ReportDataStore reportDataStore;
 
     @Value("${app.aws.sns.topic}")
     private String snsTopic;
 
     @Autowired
-    public SNSServiceImpl(AmazonSNS amazonSns) {
+    public SNSServiceImpl(AmazonSNS amazonSns, ReportDataStore reportDataStore) {
         this.notificationMessagingTemplate = new NotificationMessagingTemplate(amazonSns);
+        this.reportDataStore = reportDataStore;
     }
 
     private void send(Object message) {
@@ -26,10 +28,12 @@ public class SNSServiceImpl implements SNSService {
 
     /**
      * Send ReportRequest to PDFService and ExcelService through SNS
+     * Large data rows are offloaded to the ReportDataStore and only their location is sent (claim check).
      * @param request desired report data
      */
     @Override
     public void sendReportNotification(ReportRequest request) {
+        reportDataStore.offloadIfLarge(request);
         send(request);
     }
 }
@@ -40,10 +40,20 @@ function singleDigit(dig) {
     return ('0' + dig).slice(-2)
 }
 function downloadPDF(reqId){
-    downloadFile('/report/content/'+reqId+ '/PDF');
+    downloadFromStorage('/report/content/'+reqId+ '/PDF');
 }
 function downloadExcel(reqId){
-    downloadFile('/report/content/'+reqId+ '/EXCEL');
+    downloadFromStorage('/report/content/'+reqId+ '/EXCEL');
+}
+// get a presigned url and let the browser download the file from storage, stream it through the service if that fails
+function downloadFromStorage(urlToSend) {
+    $.getJSON(urlToSend + '?mode=URL', function (response) {
+        var link = document.createElement('a');
+        link.href = response.data;
+        link.click();
+    }).fail(function () {
+        downloadFile(urlToSend + '?mode=PROXY');
+    });
 }
 function downloadFile(urlToSend) {
     var req = new XMLHttpRequest();
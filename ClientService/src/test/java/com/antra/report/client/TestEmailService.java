@@ -0,0 +1,81 @@
+package com.antra.report.client;
+
+import com.amazonaws.services.sqs.AmazonSQSAsync;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.GetQueueUrlResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchResultEntry;
+import com.amazonaws.services.sqs.model.SendMessageResult;
+import com.antra.report.client.pojo.EmailType;
+import com.antra.report.client.service.EmailServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestEmailService {
+
+    @Test
+    public void testEmailsAreSentInBatches() throws InterruptedException {
+        AmazonSQSAsync amazonSQS = mock(AmazonSQSAsync.class);
+        when(amazonSQS.getQueueUrl("Email_Queue")).thenReturn(new GetQueueUrlResult().withQueueUrl("http://sqs/Email_Queue"));
+        when(amazonSQS.sendMessageBatch(any(SendMessageBatchRequest.class))).thenReturn(new SendMessageBatchResult());
+        EmailServiceImpl emailService = new EmailServiceImpl(amazonSQS, new ObjectMapper(), "Email_Queue", Duration.ofMillis(500));
+
+        for (int i = 0; i < 12; i++) {
+            emailService.sendEmail("youremail@gmail.com", EmailType.SUCCESS, "York" + i);
+        }
+        emailService.shutdown();
+
+        ArgumentCaptor<SendMessageBatchRequest> requests = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(amazonSQS, timeout(5000).times(2)).sendMessageBatch(requests.capture());
+        List<Integer> sizes = requests.getAllValues().stream().map(r -> r.getEntries().size()).collect(Collectors.toList());
+        assertEquals(List.of(10, 2), sizes);
+        assertTrue(requests.getAllValues().get(0).getEntries().get(0).getMessageBody().contains("Hi York0, your report is generated."));
+        verify(amazonSQS, times(1)).getQueueUrl("Email_Queue");
+    }
+
+    @Test
+    public void testFailedEntryIsSentAgainOnItsOwn() throws Exception {
+        AmazonSQSAsync amazonSQS = mock(AmazonSQSAsync.class);
+        when(amazonSQS.getQueueUrl("Email_Queue")).thenReturn(new GetQueueUrlResult().withQueueUrl("http://sqs/Email_Queue"));
+        when(amazonSQS.sendMessageBatch(any(SendMessageBatchRequest.class))).thenReturn(new SendMessageBatchResult()
+                .withSuccessful(new SendMessageBatchResultEntry().withId("0"))
+                .withFailed(new BatchResultErrorEntry().withId("1").withMessage("throttled"), new BatchResultErrorEntry().withId("2").withMessage("throttled")));
+        when(amazonSQS.sendMessage(anyString(), contains("York1"))).thenThrow(new IllegalStateException("SQS is down"));
+        when(amazonSQS.sendMessage(anyString(), contains("York2"))).thenReturn(new SendMessageResult());
+        EmailServiceImpl emailService = new EmailServiceImpl(amazonSQS, new ObjectMapper(), "Email_Queue", Duration.ofMillis(500));
+
+        List<CompletableFuture<Void>> sent = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sent.add(emailService.sendEmail("youremail@gmail.com", EmailType.SUCCESS, "York" + i));
+        }
+        emailService.shutdown();
+
+        sent.get(0).get(5, TimeUnit.SECONDS);
+        // one failed resend does not stop the next one, and only its own caller sees the failure
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> sent.get(1).get(5, TimeUnit.SECONDS));
+        assertEquals("SQS is down", failed.getCause().getMessage());
+        sent.get(2).get(5, TimeUnit.SECONDS);
+    }
+}
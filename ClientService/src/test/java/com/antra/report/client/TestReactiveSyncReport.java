@@ -0,0 +1,115 @@
+package com.antra.report.client;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.antra.report.client.controller.ReportController;
+import com.antra.report.client.entity.ReportRequestEntity;
+import com.antra.report.client.pojo.DownloadMode;
+import com.antra.report.client.repository.ReportRequestRepo;
+import com.antra.report.client.service.ReportCache;
+import com.antra.report.client.service.ReportCompletionNotifier;
+import com.antra.report.client.service.ReportDispatcher;
+import com.antra.report.client.service.ReportOutbox;
+import com.antra.report.client.service.ReportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestReactiveSyncReport {
+
+    private static final String REQUEST = "{\"headers\":[\"Name\",\"Age\"],\"description\":\"Student report\","
+            + "\"data\":[[\"York\",\"30\"]],\"submitter\":\"York\"}";
+
+    private final ReportRequestRepo reportRequestRepo = mock(ReportRequestRepo.class);
+    private final Map<String, ReportRequestEntity> reports = new ConcurrentHashMap<>();
+    private final ReportServiceImpl reportService = new ReportServiceImpl(reportRequestRepo, mock(ReportOutbox.class), mock(AmazonS3.class),
+            mock(ReportCompletionNotifier.class), mock(ReportDispatcher.class), mock(ReportCache.class));
+
+    @BeforeEach
+    public void setUp() {
+        when(reportRequestRepo.save(any(ReportRequestEntity.class))).thenAnswer(call -> {
+            ReportRequestEntity entity = call.getArgument(0);
+            reports.put(entity.getReqId(), entity);
+            return entity;
+        });
+        when(reportRequestRepo.findById(anyString())).thenAnswer(call -> Optional.ofNullable(reports.get(call.<String>getArgument(0))));
+        ReflectionTestUtils.setField(reportService, "excelTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(reportService, "pdfTimeout", Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testBothFilesGenerated() {
+        generators(HttpStatus.OK, HttpStatus.OK);
+
+        webTestClient().post().uri("/report/sync").contentType(MediaType.APPLICATION_JSON).bodyValue(REQUEST)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.description").isEqualTo("Sync - Student report")
+                .jsonPath("$.data.excelReportStatus").isEqualTo("COMPLETED")
+                .jsonPath("$.data.pdfReportStatus").isEqualTo("COMPLETED");
+    }
+
+    @Test
+    public void testFailedGeneratorFailsItsFile() {
+        generators(HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.OK);
+
+        webTestClient().post().uri("/report/sync").contentType(MediaType.APPLICATION_JSON).bodyValue(REQUEST)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.excelReportStatus").isEqualTo("FAILED")
+                .jsonPath("$.data.pdfReportStatus").isEqualTo("COMPLETED");
+    }
+
+    @Test
+    public void testInvalidRequestIsRejected() {
+        generators(HttpStatus.OK, HttpStatus.OK);
+
+        webTestClient().post().uri("/report/sync").contentType(MediaType.APPLICATION_JSON).bodyValue("{\"submitter\":\"York\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+        assertTrue(reports.isEmpty());
+    }
+
+    /**
+     * Answer the calls to excel-service and pdf-service with the given statuses, a successful one echoes the report id
+     */
+    private void generators(HttpStatus excelStatus, HttpStatus pdfStatus) {
+        WebClient.Builder webClientBuilder = WebClient.builder().exchangeFunction(request -> {
+            boolean excel = "excel-service".equals(request.url().getHost());
+            HttpStatus status = excel ? excelStatus : pdfStatus;
+            if (status != HttpStatus.OK) {
+                return Mono.just(ClientResponse.create(status).build());
+            }
+            String reqId = reports.keySet().iterator().next();
+            String body = "{\"reqId\":\"" + reqId + "\",\"fileId\":\"File-1\",\"fileLocation\":\"bucket/File-1\",\"fileSize\":10}";
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(body)
+                    .build());
+        });
+        ReflectionTestUtils.setField(reportService, "webClientBuilder", webClientBuilder);
+    }
+
+    private WebTestClient webTestClient() {
+        return WebTestClient.bindToController(new ReportController(reportService, true, DownloadMode.PROXY)).build();
+    }
+}
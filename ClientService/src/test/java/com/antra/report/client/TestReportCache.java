@@ -0,0 +1,76 @@
+package com.antra.report.client;
+
+import com.antra.report.client.pojo.reponse.ReportVO;
+import com.antra.report.client.service.ReportCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TestReportCache {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReportCache reportCache = new ReportCache(meterRegistry, 100, Duration.ofMinutes(10));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testReadThroughAndMetrics() {
+        reportCache.get("Req-1", this::load);
+        reportCache.get("Req-1", this::load);
+        reportCache.get("Req-1", this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "report-vo").tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "report-vo").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void testMissingReportIsNotCached() {
+        assertNull(reportCache.get("Req-404", id -> null));
+        assertEquals("Req-404", reportCache.get("Req-404", this::load).getId());
+    }
+
+    @Test
+    public void testEvictReloads() {
+        reportCache.get("Req-1", this::load);
+        reportCache.get("Req-2", this::load);
+        reportCache.evict("Req-1");
+        reportCache.get("Req-1", this::load);
+        reportCache.get("Req-2", this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testEvictAgainAfterTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        reportCache.evict("Req-1");
+        // a poll before the commit still reads the old row and caches it
+        reportCache.get("Req-1", this::load);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        reportCache.get("Req-1", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private ReportVO load(String reqId) {
+        loads.incrementAndGet();
+        return new ReportVO(reqId, "York", "Test report", null, null, null, null, null, null);
+    }
+}
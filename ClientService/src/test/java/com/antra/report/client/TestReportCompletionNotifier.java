@@ -0,0 +1,62 @@
+package com.antra.report.client;
+
+import com.antra.report.client.entity.ReportStatus;
+import com.antra.report.client.pojo.EmailType;
+import com.antra.report.client.pojo.reponse.ReportVO;
+import com.antra.report.client.repository.ReportRequestRepo;
+import com.antra.report.client.service.ReportCompletionNotifier;
+import com.antra.report.client.service.ReportOutbox;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestReportCompletionNotifier {
+
+    private final ReportRequestRepo reportRequestRepo = mock(ReportRequestRepo.class);
+    private final ReportOutbox reportOutbox = mock(ReportOutbox.class);
+    private final ReportCompletionNotifier notifier = new ReportCompletionNotifier(reportRequestRepo, reportOutbox);
+
+    @Test
+    public void testNoEmailWhileAFileIsPending() {
+        when(reportRequestRepo.findReportVOsByReqIdIn(List.of("Req-1"))).thenReturn(List.of(report("Req-1", ReportStatus.COMPLETED, ReportStatus.PENDING)));
+
+        notifier.notifyIfComplete(List.of("Req-1"));
+
+        verify(reportRequestRepo, never()).markCompletionNotified(anyString());
+        verify(reportOutbox, never()).addEmail(anyString(), any(), anyString());
+    }
+
+    @Test
+    public void testOneEmailWhenBothFilesAreDone() {
+        when(reportRequestRepo.findReportVOsByReqIdIn(List.of("Req-1"))).thenReturn(List.of(report("Req-1", ReportStatus.COMPLETED, ReportStatus.COMPLETED)));
+        // the second response of the report sees the email already claimed
+        when(reportRequestRepo.markCompletionNotified("Req-1")).thenReturn(1, 0);
+
+        notifier.notifyIfComplete(List.of("Req-1"));
+        notifier.notifyIfComplete(List.of("Req-1"));
+
+        verify(reportOutbox, times(1)).addEmail("Req-1", EmailType.SUCCESS, "York");
+    }
+
+    @Test
+    public void testFailureEmailWhenAFileFailed() {
+        when(reportRequestRepo.findReportVOsByReqIdIn(List.of("Req-1"))).thenReturn(List.of(report("Req-1", ReportStatus.FAILED, ReportStatus.COMPLETED)));
+        when(reportRequestRepo.markCompletionNotified("Req-1")).thenReturn(1);
+
+        notifier.notifyIfComplete(List.of("Req-1"));
+
+        verify(reportOutbox).addEmail("Req-1", EmailType.FAILURE, "York");
+    }
+
+    private ReportVO report(String reqId, ReportStatus pdfStatus, ReportStatus excelStatus) {
+        return new ReportVO(reqId, "York", "Test report", null, null, pdfStatus, null, excelStatus, null);
+    }
+}
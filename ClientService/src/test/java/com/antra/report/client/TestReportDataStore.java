@@ -0,0 +1,90 @@
+package com.antra.report.client;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.antra.report.client.pojo.request.ReportRequest;
+import com.antra.report.client.service.ReportDataStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class TestReportDataStore {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AmazonS3 s3Client = mock(AmazonS3.class);
+
+    @TempDir
+    Path localDir;
+
+    @Test
+    public void testSmallDataStaysInline() {
+        ReportDataStore store = new ReportDataStore(s3Client, objectMapper, ReportDataStore.Store.S3, 1024, "report-bucket", "report-data/", localDir.toString());
+        ReportRequest request = request(5);
+
+        store.offloadIfLarge(request);
+
+        assertEquals(5, request.getData().size());
+        assertNull(request.getDataLocation());
+        verifyNoInteractions(s3Client);
+    }
+
+    @Test
+    public void testLargeDataIsOffloadedToLocalDir() throws Exception {
+        ReportDataStore store = new ReportDataStore(s3Client, objectMapper, ReportDataStore.Store.LOCAL, 1024, "", "report-data/", localDir.toString());
+        ReportRequest request = request(1000);
+        List<List<String>> data = request.getData();
+
+        store.offloadIfLarge(request);
+
+        assertNull(request.getData());
+        Path file = Paths.get(URI.create(request.getDataLocation()));
+        assertTrue(file.startsWith(localDir));
+        assertTrue(Files.size(file) < objectMapper.writeValueAsBytes(data).length / 4);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals(data, objectMapper.readValue(in, new TypeReference<List<List<String>>>() { }));
+        }
+    }
+
+    @Test
+    public void testLargeDataIsOffloadedToS3() {
+        ReportDataStore store = new ReportDataStore(s3Client, objectMapper, ReportDataStore.Store.S3, 1024, "report-bucket", "report-data/", localDir.toString());
+        ReportRequest request = request(1000);
+
+        store.offloadIfLarge(request);
+
+        assertEquals("s3://report-bucket/report-data/Req-1.json.gz", request.getDataLocation());
+        verify(s3Client).putObject(eq("report-bucket"), eq("report-data/Req-1.json.gz"), any(InputStream.class), any(ObjectMetadata.class));
+    }
+
+    private ReportRequest request(int rows) {
+        ReportRequest request = new ReportRequest();
+        request.setReqId("Req-1");
+        request.setSubmitter("York");
+        request.setHeaders(List.of("Student #", "Name", "Class", "Score"));
+        List<List<String>> data = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            data.add(List.of(String.valueOf(i), "Student " + i, "Math", String.valueOf(i % 100)));
+        }
+        request.setData(data);
+        return request;
+    }
+}
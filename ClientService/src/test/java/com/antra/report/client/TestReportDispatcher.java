@@ -0,0 +1,64 @@
+package com.antra.report.client;
+
+import com.antra.report.client.config.ThreadMode;
+import com.antra.report.client.exception.ServiceBusyException;
+import com.antra.report.client.pojo.FileType;
+import com.antra.report.client.service.ReportDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestReportDispatcher {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReportDispatcher dispatcher = new ReportDispatcher(meterRegistry, ThreadMode.PLATFORM, 1, 1, 1, 1, 1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testRejectWhenBulkheadIsFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> running = dispatcher.dispatch(FileType.EXCEL, () -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> queued = dispatcher.dispatch(FileType.EXCEL, () -> await(release));
+        CompletableFuture<Void> rejected = dispatcher.dispatch(FileType.EXCEL, () -> await(release));
+
+        assertTrue(rejected.isCompletedExceptionally());
+        rejected.whenComplete((v, e) -> assertTrue(e instanceof ServiceBusyException));
+        assertEquals(1, meterRegistry.get("report.dispatch.active").tag("service", "excel-service").gauge().value());
+        assertEquals(1, meterRegistry.get("report.dispatch.queued").tag("service", "excel-service").gauge().value());
+        assertEquals(1, meterRegistry.get("report.dispatch.rejected").tag("service", "excel-service").functionCounter().count());
+
+        // the pdf bulkhead is not affected by the full excel bulkhead
+        CompletableFuture<Void> pdf = dispatcher.dispatch(FileType.PDF, () -> { });
+        pdf.join();
+        assertFalse(pdf.isCompletedExceptionally());
+
+        release.countDown();
+        CompletableFuture.allOf(running, queued).join();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.antra.report.client;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.antra.report.client.controller.ReportController;
+import com.antra.report.client.entity.ExcelReportEntity;
+import com.antra.report.client.entity.ReportRequestEntity;
+import com.antra.report.client.pojo.DownloadMode;
+import com.antra.report.client.pojo.FileType;
+import com.antra.report.client.pojo.reponse.ReportFileVO;
+import com.antra.report.client.pojo.reponse.SqsResponse;
+import com.antra.report.client.repository.ReportRequestRepo;
+import com.antra.report.client.service.ReportCache;
+import com.antra.report.client.service.ReportCompletionNotifier;
+import com.antra.report.client.service.ReportDispatcher;
+import com.antra.report.client.service.ReportOutbox;
+import com.antra.report.client.service.ReportService;
+import com.antra.report.client.service.ReportServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class TestReportDownload {
+
+    private static final String PRESIGNED = "http://localhost:9000/report-bucket/File-1?X-Amz-Signature=abc";
+
+    private final ReportService reportService = mock(ReportService.class);
+
+    @Test
+    public void testRedirectMode() throws Exception {
+        when(reportService.getFileUrlByReqId("Req-1", FileType.PDF)).thenReturn(new URL(PRESIGNED));
+
+        mockMvc(DownloadMode.PROXY).perform(get("/report/content/Req-1/PDF").param("mode", "REDIRECT"))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", PRESIGNED));
+        verify(reportService, never()).getFileBodyByReqId("Req-1", FileType.PDF);
+    }
+
+    @Test
+    public void testUrlMode() throws Exception {
+        when(reportService.getFileUrlByReqId("Req-1", FileType.EXCEL)).thenReturn(new URL(PRESIGNED));
+
+        mockMvc(DownloadMode.URL).perform(get("/report/content/Req-1/EXCEL").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(PRESIGNED));
+    }
+
+    @Test
+    public void testProxyMode() throws Exception {
+        when(reportService.getFileBodyByReqId("Req-1", FileType.PDF)).thenReturn(new ByteArrayInputStream("%PDF".getBytes(StandardCharsets.UTF_8)));
+        when(reportService.getFileByReqId("Req-1", FileType.PDF)).thenReturn(new ReportFileVO("report.pdf", "application/pdf"));
+
+        mockMvc(DownloadMode.PROXY).perform(get("/report/content/Req-1/PDF"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("fileName", "report.pdf"))
+                .andExpect(content().string("%PDF"));
+    }
+
+    @Test
+    public void testProxyModeKeepsTheExcelFileName() throws Exception {
+        when(reportService.getFileBodyByReqId("Req-1", FileType.EXCEL)).thenReturn(new ByteArrayInputStream(new byte[]{'P', 'K'}));
+        when(reportService.getFileByReqId("Req-1", FileType.EXCEL)).thenReturn(new ReportFileVO("File-1.zip", "application/zip"));
+
+        mockMvc(DownloadMode.PROXY).perform(get("/report/content/Req-1/EXCEL"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/zip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"File-1.zip\""))
+                .andExpect(header().string("fileName", "File-1.zip"));
+    }
+
+    @Test
+    public void testPresignedUrlKeepsTheExcelFileName() throws Exception {
+        ReportRequestRepo repo = mock(ReportRequestRepo.class);
+        AmazonS3 s3Client = mock(AmazonS3.class);
+        ReportServiceImpl service = new ReportServiceImpl(repo, mock(ReportOutbox.class), s3Client,
+                mock(ReportCompletionNotifier.class), mock(ReportDispatcher.class), mock(ReportCache.class));
+        ReflectionTestUtils.setField(service, "downloadUrlTtl", Duration.ofMinutes(5));
+        ReportRequestEntity entity = new ReportRequestEntity();
+        entity.setReqId("Req-1");
+        entity.setExcelReport(new ExcelReportEntity());
+        when(repo.findById("Req-1")).thenReturn(Optional.of(entity));
+        when(s3Client.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(new URL(PRESIGNED));
+
+        // a report split into workbooks is stored as a zip listing them
+        SqsResponse response = new SqsResponse();
+        response.setReqId("Req-1");
+        response.setFileId("File-1");
+        response.setFileLocation("report-bucket/File-1");
+        response.setFileName("File-1.zip");
+        response.setFileParts(List.of("File-1-1.xlsx", "File-1-2.xlsx"));
+        service.updateReportFileData(response, FileType.EXCEL);
+        service.getFileUrlByReqId("Req-1", FileType.EXCEL);
+
+        ArgumentCaptor<GeneratePresignedUrlRequest> presign = ArgumentCaptor.forClass(GeneratePresignedUrlRequest.class);
+        verify(s3Client).generatePresignedUrl(presign.capture());
+        assertEquals("application/zip", presign.getValue().getResponseHeaders().getContentType());
+        assertEquals("attachment; filename=\"File-1.zip\"", presign.getValue().getResponseHeaders().getContentDisposition());
+
+        response.setFileName("File-1.xlsx");
+        response.setFileParts(null);
+        service.updateReportFileData(response, FileType.EXCEL);
+        ReportFileVO file = service.getFileByReqId("Req-1", FileType.EXCEL);
+        assertEquals("File-1.xlsx", file.getFileName());
+        assertEquals("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", file.getContentType());
+    }
+
+    private MockMvc mockMvc(DownloadMode downloadMode) {
+        return MockMvcBuilders.standaloneSetup(new ReportController(reportService, false, downloadMode)).build();
+    }
+}
@@ -0,0 +1,188 @@
+package com.antra.report.client;
+
+import com.antra.report.client.entity.OutboxMessageEntity;
+import com.antra.report.client.pojo.ColumnType;
+import com.antra.report.client.pojo.EmailType;
+import com.antra.report.client.pojo.request.ReportRequest;
+import com.antra.report.client.repository.OutboxMessageRepo;
+import com.antra.report.client.service.EmailService;
+import com.antra.report.client.service.ReportOutbox;
+import com.antra.report.client.service.SNSService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {"app.outbox.max-attempts=2", "app.outbox.relay-interval=3600000"})
+@Import({ReportOutbox.class, TestReportOutbox.OutboxTestConfig.class})
+public class TestReportOutbox {
+
+    @TestConfiguration
+    static class OutboxTestConfig {
+        @Bean
+        public ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    ReportOutbox reportOutbox;
+
+    @Autowired
+    OutboxMessageRepo outboxMessageRepo;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @MockBean
+    SNSService snsService;
+
+    @MockBean
+    EmailService emailService;
+
+    @Test
+    public void testRelayPublishesAndDrains() {
+        double publishedBefore = meterRegistry.get("report.outbox.published").counter().count();
+        for (int i = 0; i < 3; i++) {
+            reportOutbox.add(request("Req-" + i));
+        }
+        assertEquals(3, outboxMessageRepo.count());
+
+        reportOutbox.relay();
+
+        verify(snsService, times(3)).sendReportNotification(any());
+        verify(snsService).sendReportNotification(argThat(r -> "Req-1".equals(r.getReqId()) && "York".equals(r.getSubmitter())
+                && List.of(ColumnType.STRING, ColumnType.NUMBER).equals(r.getTypes())));
+        assertEquals(0, outboxMessageRepo.count());
+        assertEquals(0, meterRegistry.get("report.outbox.lag").timeGauge().value(TimeUnit.MILLISECONDS));
+        assertEquals(3, meterRegistry.get("report.outbox.published").counter().count() - publishedBefore);
+    }
+
+    @Test
+    public void testFailedPublishStaysInOutbox() {
+        doThrow(new IllegalStateException("SNS is down")).when(snsService).sendReportNotification(argThat(r -> "Req-old".equals(r.getReqId())));
+        reportOutbox.add(request("Req-new"));
+        OutboxMessageEntity old = outboxMessageRepo.findAll().get(0);
+        old.setReqId("Req-old");
+        old.setPayload(old.getPayload().replace("Req-new", "Req-old"));
+        old.setCreatedTime(LocalDateTime.now().minusHours(1));
+        outboxMessageRepo.saveAndFlush(old);
+        reportOutbox.add(request("Req-new"));
+
+        reportOutbox.relay();
+
+        List<OutboxMessageEntity> waiting = outboxMessageRepo.findAll();
+        assertEquals(1, waiting.size());
+        assertEquals("Req-old", waiting.get(0).getReqId());
+        assertEquals(1, waiting.get(0).getAttempts());
+        assertTrue(meterRegistry.get("report.outbox.lag").timeGauge().value(TimeUnit.MINUTES) >= 59);
+    }
+
+    @Test
+    public void testRepeatedlyFailedPublishIsParked() {
+        doThrow(new IllegalStateException("SNS is down")).when(snsService).sendReportNotification(argThat(r -> "Req-poison".equals(r.getReqId())));
+        reportOutbox.add(request("Req-poison"));
+
+        reportOutbox.relay();
+        assertFalse(outboxMessageRepo.findAll().get(0).isParked());
+        assertEquals(0, meterRegistry.get("report.outbox.parked").gauge().value());
+
+        reportOutbox.relay();
+        OutboxMessageEntity parked = outboxMessageRepo.findAll().get(0);
+        assertTrue(parked.isParked());
+        assertEquals(2, parked.getAttempts());
+        assertEquals(1, meterRegistry.get("report.outbox.parked").gauge().value());
+        // a parked message is not waiting anymore
+        assertEquals(0, meterRegistry.get("report.outbox.lag").timeGauge().value(TimeUnit.MILLISECONDS));
+
+        reportOutbox.add(request("Req-next"));
+        reportOutbox.relay();
+        verify(snsService, times(2)).sendReportNotification(argThat(r -> "Req-poison".equals(r.getReqId())));
+        verify(snsService).sendReportNotification(argThat(r -> "Req-next".equals(r.getReqId())));
+        assertEquals(List.of("Req-poison"), outboxMessageRepo.findAll().stream().map(OutboxMessageEntity::getReqId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testMessagesLeasedByAnotherRelayAreSkipped() {
+        reportOutbox.add(request("Req-leased"));
+        reportOutbox.add(request("Req-expired"));
+        List<OutboxMessageEntity> messages = outboxMessageRepo.findAll();
+        messages.get(0).setClaimedBy("other-relay");
+        messages.get(0).setClaimedUntil(LocalDateTime.now().plusMinutes(1));
+        messages.get(1).setClaimedBy("crashed-relay");
+        messages.get(1).setClaimedUntil(LocalDateTime.now().minusMinutes(1));
+        outboxMessageRepo.saveAll(messages);
+        outboxMessageRepo.flush();
+
+        reportOutbox.relay();
+
+        verify(snsService, times(1)).sendReportNotification(any());
+        verify(snsService).sendReportNotification(argThat(r -> "Req-expired".equals(r.getReqId())));
+        assertEquals(List.of("Req-leased"), outboxMessageRepo.findAll().stream().map(OutboxMessageEntity::getReqId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testEmailIsDeletedOnceSent() {
+        when(emailService.sendEmail(anyString(), any(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("SQS is down")), CompletableFuture.completedFuture(null));
+        reportOutbox.addEmail("Req-1", EmailType.SUCCESS, "York");
+
+        reportOutbox.relay();
+        assertEquals(1, outboxMessageRepo.findAll().get(0).getAttempts());
+
+        reportOutbox.relay();
+        verify(emailService, times(2)).sendEmail("youremail@gmail.com", EmailType.SUCCESS, "York");
+        verify(snsService, never()).sendReportNotification(any());
+        assertEquals(0, outboxMessageRepo.count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testAddNeedsTheReportTransaction() {
+        assertThrows(IllegalTransactionStateException.class, () -> reportOutbox.add(request("Req-1")));
+    }
+
+    private ReportRequest request(String reqId) {
+        ReportRequest request = new ReportRequest();
+        request.setReqId(reqId);
+        request.setSubmitter("York");
+        request.setDescription("Test report");
+        request.setHeaders(List.of("Name", "Age"));
+        request.setTypes(List.of(ColumnType.STRING, ColumnType.NUMBER));
+        request.setData(List.of(List.of("York", "30")));
+        return request;
+    }
+}
@@ -0,0 +1,65 @@
+package com.antra.report.client;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.antra.report.client.controller.ReportController;
+import com.antra.report.client.exception.InvalidCursorException;
+import com.antra.report.client.pojo.DownloadMode;
+import com.antra.report.client.repository.ReportRequestRepo;
+import com.antra.report.client.service.ReportCache;
+import com.antra.report.client.service.ReportCompletionNotifier;
+import com.antra.report.client.service.ReportDispatcher;
+import com.antra.report.client.service.ReportOutbox;
+import com.antra.report.client.service.ReportService;
+import com.antra.report.client.service.ReportServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.util.NestedServletException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class TestReportPage {
+
+    private final ReportServiceImpl reportServiceImpl = new ReportServiceImpl(mock(ReportRequestRepo.class), mock(ReportOutbox.class), mock(AmazonS3.class),
+            mock(ReportCompletionNotifier.class), mock(ReportDispatcher.class), mock(ReportCache.class));
+
+    @Test
+    public void testInvalidCursorAndSize() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2020-06-01T12:00".getBytes(StandardCharsets.UTF_8));
+        String badTime = Base64.getUrlEncoder().encodeToString("yesterday|Req-1".getBytes(StandardCharsets.UTF_8));
+        for (String cursor : new String[]{"%%%", noSeparator, badTime}) {
+            assertThrows(InvalidCursorException.class, () -> reportServiceImpl.getReportPage(null, null, cursor, 10));
+        }
+        assertThrows(InvalidCursorException.class, () -> reportServiceImpl.getReportPage(null, null, null, 0));
+    }
+
+    @Test
+    public void testOnlyInvalidCursorsAreBadRequests() throws Exception {
+        ReportService reportService = mock(ReportService.class);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ReportController(reportService, false, DownloadMode.PROXY)).build();
+
+        when(reportService.getReportPage(any(), any(), anyString(), anyInt())).thenThrow(new InvalidCursorException("Invalid report cursor: abc"));
+        mockMvc.perform(get("/report/page").param("cursor", "abc").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid report cursor: abc"));
+
+        // any other IllegalArgumentException is a server error, its message is not echoed back
+        doThrow(new IllegalArgumentException("internal detail")).when(reportService).getReportPage(any(), any(), anyString(), anyInt());
+        NestedServletException error = assertThrows(NestedServletException.class, () -> mockMvc.perform(get("/report/page").param("cursor", "abc")));
+        assertEquals(IllegalArgumentException.class, error.getCause().getClass());
+    }
+}
@@ -0,0 +1,106 @@
+package com.antra.report.client;
+
+import com.antra.report.client.entity.ExcelReportEntity;
+import com.antra.report.client.entity.PDFReportEntity;
+import com.antra.report.client.entity.ReportRequestEntity;
+import com.antra.report.client.entity.ReportStatus;
+import com.antra.report.client.pojo.reponse.ReportVO;
+import com.antra.report.client.repository.ReportRequestRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+public class TestReportRequestRepo {
+
+    @Autowired
+    ReportRequestRepo reportRequestRepo;
+
+    private final LocalDateTime now = LocalDateTime.of(2020, 6, 1, 12, 0);
+
+    @BeforeEach
+    public void setUpData() {
+        save("Req-1", "York", now.minusMinutes(3), ReportStatus.COMPLETED, ReportStatus.COMPLETED);
+        save("Req-2", "Dawei", now.minusMinutes(2), ReportStatus.PENDING, ReportStatus.COMPLETED);
+        save("Req-3", "York", now.minusMinutes(1), ReportStatus.FAILED, ReportStatus.PENDING);
+        // same created time as Req-3, the reqId breaks the tie
+        save("Req-4", "York", now.minusMinutes(1), ReportStatus.COMPLETED, ReportStatus.COMPLETED);
+    }
+
+    @Test
+    public void testKeysetPages() {
+        List<ReportVO> first = reportRequestRepo.findReportVOPage(null, null, null, null, PageRequest.of(0, 2));
+        assertEquals(List.of("Req-4", "Req-3"), ids(first));
+
+        ReportVO last = first.get(1);
+        List<ReportVO> second = reportRequestRepo.findReportVOPage(null, null, last.getCreatedTime(), last.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of("Req-2", "Req-1"), ids(second));
+        assertEquals(ReportStatus.PENDING, second.get(0).getPdfReportStatus());
+        assertEquals(ReportStatus.COMPLETED, second.get(0).getExcelReportStatus());
+    }
+
+    @Test
+    public void testFilters() {
+        assertEquals(List.of("Req-4", "Req-3", "Req-1"), ids(reportRequestRepo.findReportVOPage("York", null, null, null, PageRequest.of(0, 10))));
+        assertEquals(List.of("Req-3", "Req-2"), ids(reportRequestRepo.findReportVOPage(null, ReportStatus.PENDING, null, null, PageRequest.of(0, 10))));
+        assertEquals(List.of("Req-3"), ids(reportRequestRepo.findReportVOPage("York", ReportStatus.PENDING, null, null, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    public void testListAll() {
+        assertEquals(List.of("Req-4", "Req-3", "Req-2", "Req-1"), ids(reportRequestRepo.findAllReportVOs()));
+    }
+
+    @Test
+    public void testFindById() {
+        ReportVO report = reportRequestRepo.findReportVOById("Req-3").orElseThrow();
+        assertEquals(ReportStatus.FAILED, report.getPdfReportStatus());
+        assertEquals(ReportStatus.PENDING, report.getExcelReportStatus());
+        assertTrue(reportRequestRepo.findReportVOById("Req-404").isEmpty());
+    }
+
+    @Test
+    public void testFindAllWithFiles() {
+        List<ReportRequestEntity> entities = reportRequestRepo.findAllWithFilesByReqIdIn(List.of("Req-1", "Req-3", "Req-404"));
+        assertEquals(2, entities.size());
+        entities.forEach(entity -> assertEquals(entity.getReqId(), entity.getPdfReport().getRequest().getReqId()));
+    }
+
+    @Test
+    public void testMarkCompletionNotifiedOnce() {
+        assertEquals(1, reportRequestRepo.markCompletionNotified("Req-1"));
+        assertEquals(0, reportRequestRepo.markCompletionNotified("Req-1"));
+    }
+
+    private List<String> ids(List<ReportVO> reports) {
+        return reports.stream().map(ReportVO::getId).collect(Collectors.toList());
+    }
+
+    private void save(String reqId, String submitter, LocalDateTime createdTime, ReportStatus pdfStatus, ReportStatus excelStatus) {
+        ReportRequestEntity entity = new ReportRequestEntity();
+        entity.setReqId(reqId);
+        entity.setSubmitter(submitter);
+        entity.setDescription("Test report " + reqId);
+        entity.setCreatedTime(createdTime);
+
+        PDFReportEntity pdfReport = new PDFReportEntity();
+        pdfReport.setRequest(entity);
+        pdfReport.setStatus(pdfStatus);
+        entity.setPdfReport(pdfReport);
+
+        ExcelReportEntity excelReport = new ExcelReportEntity();
+        excelReport.setRequest(entity);
+        excelReport.setStatus(excelStatus);
+        entity.setExcelReport(excelReport);
+        reportRequestRepo.save(entity);
+    }
+}
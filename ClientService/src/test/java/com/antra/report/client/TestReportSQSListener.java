@@ -0,0 +1,101 @@
+package com.antra.report.client;
+
+import com.antra.report.client.exception.RequestNotFoundException;
+import com.antra.report.client.handler.ReportSQSListener;
+import com.antra.report.client.pojo.FileType;
+import com.antra.report.client.pojo.reponse.SqsResponse;
+import com.antra.report.client.service.ReportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TestReportSQSListener {
+
+    private final ReportService reportService = mock(ReportService.class);
+    // a long wait so all the messages of the test end up in one batch
+    private final ReportSQSListener listener = new ReportSQSListener(reportService, true, 10, Duration.ofSeconds(1), 3);
+    // the listener container runs the messages of one poll concurrently, one thread each
+    private final Executor pollThreads = task -> new Thread(task).start();
+
+    @AfterEach
+    public void tearDown() {
+        listener.shutdown();
+    }
+
+    @Test
+    public void testResponsesOfOnePollAreAppliedAsOneBatch() {
+        receive(10, "1");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SqsResponse>> batch = ArgumentCaptor.forClass(List.class);
+        verify(reportService, times(1)).updateReportsFromResponses(batch.capture(), eq(FileType.PDF));
+        assertEquals(10, batch.getValue().size());
+        verify(reportService, never()).updateReportFromResponse(any(), any());
+    }
+
+    @Test
+    public void testBadMessageDoesNotPoisonTheBatch() {
+        doThrow(new RequestNotFoundException()).when(reportService).updateReportsFromResponses(anyList(), eq(FileType.PDF));
+        doThrow(new RequestNotFoundException()).when(reportService)
+                .updateReportFromResponse(argThat(r -> r != null && "Req-0".equals(r.getReqId())), eq(FileType.PDF));
+
+        List<CompletableFuture<Void>> calls = send(3, "1");
+
+        // only the failed message is thrown back to the container, which keeps it, the others are deleted
+        CompletionException failure = assertThrows(CompletionException.class, () -> calls.get(0).join());
+        assertEquals(RequestNotFoundException.class, failure.getCause().getClass());
+        calls.get(1).join();
+        calls.get(2).join();
+    }
+
+    @Test
+    public void testPoisonMessageIsDroppedAtTheMaxReceives() {
+        ReportSQSListener unbatched = new ReportSQSListener(reportService, false, 10, Duration.ofSeconds(1), 3);
+        doThrow(new RequestNotFoundException()).when(reportService).updateReportFromResponse(any(), eq(FileType.PDF));
+
+        assertThrows(RequestNotFoundException.class, () -> unbatched.responseQueueListenerPdf(response("Req-0"), "1"));
+        assertThrows(RequestNotFoundException.class, () -> unbatched.responseQueueListenerPdf(response("Req-0"), "2"));
+        // the third delivery returns normally, so the container deletes the message
+        unbatched.responseQueueListenerPdf(response("Req-0"), "3");
+        verify(reportService, times(3)).updateReportFromResponse(any(), eq(FileType.PDF));
+    }
+
+    private void receive(int messages, String receiveCount) {
+        CompletableFuture.allOf(send(messages, receiveCount).toArray(new CompletableFuture[0])).join();
+    }
+
+    private List<CompletableFuture<Void>> send(int messages, String receiveCount) {
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < messages; i++) {
+            SqsResponse response = response("Req-" + i);
+            calls.add(CompletableFuture.runAsync(() -> listener.responseQueueListenerPdf(response, receiveCount), pollThreads));
+        }
+        return calls;
+    }
+
+    private SqsResponse response(String reqId) {
+        SqsResponse response = new SqsResponse();
+        response.setReqId(reqId);
+        response.setFileId("File-" + reqId);
+        return response;
+    }
+}
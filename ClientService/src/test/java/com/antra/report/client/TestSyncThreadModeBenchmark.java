@@ -0,0 +1,89 @@
+package com.antra.report.client;
+
+import com.antra.report.client.config.ThreadMode;
+import com.antra.report.client.config.VirtualThreads;
+import com.antra.report.client.pojo.FileType;
+import com.antra.report.client.service.ReportDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compare the platform and the virtual thread mode of the sync report path with stubbed generators.
+ * Each sync request occupies a request thread (200 like the Tomcat default in platform mode) and dispatches
+ * the Excel and PDF calls, which block for GENERATOR_LATENCY_MS like a call to a generator service would.
+ * Run with: mvn test -Dtest=TestSyncThreadModeBenchmark -Dbenchmark=true
+ * The virtual mode is only measured when Maven runs on a Java 21+ JDK (JAVA_HOME), on older JDKs it is logged as skipped.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class TestSyncThreadModeBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(TestSyncThreadModeBenchmark.class);
+
+    private static final long GENERATOR_LATENCY_MS = 200;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int[] CONCURRENT_REQUESTS = {100, 1_000, 10_000};
+
+    @Test
+    public void compareThreadModes() {
+        for (int requests : CONCURRENT_REQUESTS) {
+            run(ThreadMode.PLATFORM, requests);
+            if (VirtualThreads.isSupported()) {
+                run(ThreadMode.VIRTUAL, requests);
+            } else {
+                log.info("virtual mode skipped, running on Java {}", System.getProperty("java.version"));
+            }
+        }
+    }
+
+    private void run(ThreadMode mode, int requests) {
+        // pools are sized so nothing is rejected, the benchmark measures the thread limit and not the bulkhead
+        ReportDispatcher dispatcher = new ReportDispatcher(new SimpleMeterRegistry(), mode,
+                TOMCAT_MAX_THREADS, requests, TOMCAT_MAX_THREADS, requests, requests);
+        ExecutorService platformRequestThreads = mode == ThreadMode.PLATFORM ? Executors.newFixedThreadPool(TOMCAT_MAX_THREADS) : null;
+        Executor requestThreads = mode == ThreadMode.PLATFORM ? platformRequestThreads : VirtualThreads.perTaskExecutor("request-");
+        AtomicInteger failed = new AtomicInteger();
+        try {
+            long start = System.nanoTime();
+            List<CompletableFuture<Void>> syncRequests = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                syncRequests.add(CompletableFuture.runAsync(() -> {
+                    CompletableFuture<Void> excel = dispatcher.dispatch(FileType.EXCEL, TestSyncThreadModeBenchmark::stubGenerator);
+                    CompletableFuture<Void> pdf = dispatcher.dispatch(FileType.PDF, TestSyncThreadModeBenchmark::stubGenerator);
+                    try {
+                        CompletableFuture.allOf(excel, pdf).join();
+                    } catch (CompletionException e) {
+                        failed.incrementAndGet();
+                    }
+                }, requestThreads));
+            }
+            CompletableFuture.allOf(syncRequests.toArray(new CompletableFuture[0])).join();
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            log.info("mode={} requests={} elapsed={} ms throughput={} req/s failed={}",
+                    mode, requests, elapsedMs, String.format("%.1f", requests * 1000.0 / Math.max(elapsedMs, 1)), failed.get());
+        } finally {
+            dispatcher.shutdown();
+            if (platformRequestThreads != null) {
+                platformRequestThreads.shutdown();
+            }
+        }
+    }
+
+    private static void stubGenerator() {
+        try {
+            Thread.sleep(GENERATOR_LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
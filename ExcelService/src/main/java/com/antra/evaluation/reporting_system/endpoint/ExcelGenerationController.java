@@ -7,6 +7,7 @@ import com.antra.evaluation.reporting_system.pojo.api.ExcelResponse;
 import com.antra.evaluation.reporting_system.pojo.api.MultiSheetExcelRequest;
 import com.antra.evaluation.reporting_system.pojo.report.ExcelFile;
 import com.antra.evaluation.reporting_system.service.ExcelService;
+import com.antra.evaluation.reporting_system.service.ExcelServiceImpl;
 import io.swagger.annotations.ApiOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -118,9 +119,10 @@ public class ExcelGenerationController {
     public void downloadExcel(@PathVariable String id, HttpServletResponse response) throws IOException {
         log.debug("Got Request to Download File:{}", id);
         InputStream fis = excelService.getExcelBodyById(id);
-        response.setHeader("Content-Type", "application/vnd.ms-excel");
         String fileName = excelService.getExcelFile(id).getFileName();
-        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + ".xls\""); // TODO: File name cannot be hardcoded here
+        // a report split into several workbooks is stored as a zip of them
+        response.setHeader("Content-Type", fileName.endsWith(".zip") ? ExcelServiceImpl.ZIP_CONTENT_TYPE : ExcelServiceImpl.XLSX_CONTENT_TYPE);
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
         FileCopyUtils.copy(fis, response.getOutputStream());
         log.debug("Downloaded File:{}", id);
     }
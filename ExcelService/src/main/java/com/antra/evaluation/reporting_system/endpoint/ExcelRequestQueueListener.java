@@ -5,6 +5,7 @@ import com.antra.evaluation.reporting_system.pojo.api.ExcelResponse;
 import com.antra.evaluation.reporting_system.pojo.api.ExcelSNSRequest;
 import com.antra.evaluation.reporting_system.pojo.report.ExcelFile;
 import com.antra.evaluation.reporting_system.service.ExcelService;
+import com.antra.evaluation.reporting_system.service.ReportDataLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.aws.messaging.core.QueueMessagingTemplate;
@@ -20,9 +21,12 @@ public class ExcelRequestQueueListener {
 
     private final ExcelService excelService;
 
-    public ExcelRequestQueueListener(QueueMessagingTemplate queueMessagingTemplate, ExcelService excelService) {
+    private final ReportDataLoader reportDataLoader;
+
+    public ExcelRequestQueueListener(QueueMessagingTemplate queueMessagingTemplate, ExcelService excelService, ReportDataLoader reportDataLoader) {
         this.queueMessagingTemplate = queueMessagingTemplate;
         this.excelService = excelService;
+        this.reportDataLoader = reportDataLoader;
     }
 
    // @SqsListener("PDF_Request_Queue")
@@ -33,10 +37,16 @@ public class ExcelRequestQueueListener {
         response.setReqId(request.getReqId());
 
         try {
+            if (request.getDataLocation() != null) {
+                // large reports only carry a pointer to their rows, load them right before generating the file
+                request.setData(reportDataLoader.load(request.getDataLocation()));
+            }
             file = excelService.generateFile(request, false);
             response.setFileId(file.getFileId());
             response.setFileLocation(file.getFileLocation());
             response.setFileSize(file.getFileSize());
+            response.setFileName(file.getFileName());
+            response.setFileParts(file.getFileParts());
             log.info("Generated: {}", file);
 
         } catch (Exception e) {
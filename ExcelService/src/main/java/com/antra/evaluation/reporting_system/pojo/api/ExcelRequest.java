@@ -1,5 +1,7 @@
 package com.antra.evaluation.reporting_system.pojo.api;
 
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataType;
+
 import javax.validation.constraints.NotEmpty;
 import java.util.List;
 
@@ -7,9 +9,14 @@ public class ExcelRequest {
     private String reqId;
     @NotEmpty
     private List<String> headers;
+    /** Optional type of each column in the order of the headers, missing ones are STRING */
+    private List<ExcelDataType> types;
+    /** Optional name of the style template, see ExcelStyleTemplates */
+    private String template;
     private String description;
     private List<List<String>> data;
     private String submitter;
+    private String dataLocation;
 
     public String getReqId() {
         return reqId;
@@ -43,6 +50,22 @@ public class ExcelRequest {
         this.headers = headers;
     }
 
+    public List<ExcelDataType> getTypes() {
+        return types;
+    }
+
+    public void setTypes(List<ExcelDataType> types) {
+        this.types = types;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+
     public List<List<String>> getData() {
         return data;
     }
@@ -50,4 +73,12 @@ public class ExcelRequest {
     public void setData(List<List<String>> data) {
         this.data = data;
     }
+
+    public String getDataLocation() {
+        return dataLocation;
+    }
+
+    public void setDataLocation(String dataLocation) {
+        this.dataLocation = dataLocation;
+    }
 }
@@ -1,6 +1,7 @@
 package com.antra.evaluation.reporting_system.pojo.api;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class ExcelResponse {
     private String reqId;
@@ -12,6 +13,8 @@ public class ExcelResponse {
     private String submitter;
     private String description;
     private LocalDateTime generatedTime;
+    /** Names of the workbooks in the zip file of a report split into several files, null for a single workbook */
+    private List<String> fileParts;
     private boolean failed;
 
     public String getReqId() {
@@ -86,6 +89,14 @@ public class ExcelResponse {
         this.generatedTime = generatedTime;
     }
 
+    public List<String> getFileParts() {
+        return fileParts;
+    }
+
+    public void setFileParts(List<String> fileParts) {
+        this.fileParts = fileParts;
+    }
+
     public boolean isFailed() {
         return failed;
     }
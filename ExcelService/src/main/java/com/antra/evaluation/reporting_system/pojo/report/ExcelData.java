@@ -6,6 +6,7 @@ public class ExcelData {
     private String title;
     private String submitter;
     private String fileId;
+    private String template;
     private List<ExcelDataSheet> sheets;
 
     public String getSubmitter() {
@@ -24,6 +25,14 @@ public class ExcelData {
         this.fileId = fileId;
     }
 
+    public String getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -6,7 +6,8 @@ import java.util.List;
 public class ExcelDataSheet {
     private String title;
     private List<ExcelDataHeader> headers;
-    private List<List<Object>> dataRows;
+    /** Rows as given by the caller, they are only read and never copied */
+    private List<? extends List<?>> dataRows;
 
     public String getTitle() {
         return title;
@@ -24,11 +25,11 @@ public class ExcelDataSheet {
         this.headers = headers;
     }
 
-    public List<List<Object>> getDataRows() {
+    public List<? extends List<?>> getDataRows() {
         return dataRows;
     }
 
-    public void setDataRows(List<List<Object>> dataRows) {
+    public void setDataRows(List<? extends List<?>> dataRows) {
         this.dataRows = dataRows;
     }
 }
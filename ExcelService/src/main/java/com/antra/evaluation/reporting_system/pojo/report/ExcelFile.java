@@ -4,6 +4,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Document
 public class ExcelFile {
@@ -13,13 +14,24 @@ public class ExcelFile {
     private String fileLocation;
     private String submitter;
     private Long fileSize;
+    private String checksum;
     private String description;
     private LocalDateTime generatedTime;
+    /** Names of the workbooks in the zip file of a report split into several files, null for a single workbook */
+    private List<String> fileParts;
 
     public Long getFileSize() {
         return fileSize;
     }
 
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -72,6 +84,14 @@ public class ExcelFile {
         this.generatedTime = generatedTime;
     }
 
+    public List<String> getFileParts() {
+        return fileParts;
+    }
+
+    public void setFileParts(List<String> fileParts) {
+        this.fileParts = fileParts;
+    }
+
     @Override
     public String toString() {
         return "ExcelFile{" +
@@ -80,7 +100,9 @@ public class ExcelFile {
                 ", fileLocation='" + fileLocation + '\'' +
                 ", submitter='" + submitter + '\'' +
                 ", fileSize=" + fileSize +
+                ", checksum='" + checksum + '\'' +
                 ", generatedTime=" + generatedTime +
+                ", fileParts=" + fileParts +
                 '}';
     }
 }
@@ -0,0 +1,29 @@
+package com.antra.evaluation.reporting_system.pojo.report;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only view of some rows of a shared row list, in the order of the indexes.
+ * A multi-sheet report splits the rows of the request with it instead of copying them into every sheet.
+ */
+public class IndexedRows extends AbstractList<List<?>> implements RandomAccess {
+    private final List<? extends List<?>> rows;
+    private final int[] indexes;
+
+    public IndexedRows(List<? extends List<?>> rows, int[] indexes) {
+        this.rows = rows;
+        this.indexes = indexes;
+    }
+
+    @Override
+    public List<?> get(int index) {
+        return rows.get(indexes[index]);
+    }
+
+    @Override
+    public int size() {
+        return indexes.length;
+    }
+}
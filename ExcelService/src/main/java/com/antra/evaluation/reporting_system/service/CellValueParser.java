@@ -0,0 +1,127 @@
+package com.antra.evaluation.reporting_system.service;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * CellValueParser converts the values of NUMBER and DATE columns to the double that Excel stores in the cell.
+ * Numbers are plain decimals like 1234.5 or -1e3 and dates are ISO yyyy-MM-dd or yyyy-MM-dd'T'HH:mm[:ss], whatever the
+ * default locale and time zone of the service are. The result of every distinct text is cached, reports repeat a lot of values.
+ * A value that cannot be converted gives null and is written as text.
+ */
+public class CellValueParser {
+    /** Day 0 of the Excel 1900 date system, valid from 1900-03-01 on because of the 1900 leap year bug */
+    private static final LocalDateTime EXCEL_EPOCH = LocalDate.of(1899, 12, 30).atStartOfDay();
+    private static final LocalDate FIRST_DATE = LocalDate.of(1900, 3, 1);
+    private static final double MILLIS_PER_DAY = 24 * 60 * 60 * 1000d;
+    private static final Double INVALID = Double.NaN;
+
+    private final int maxCacheSize;
+    private final Map<String, Double> numbers = new HashMap<>();
+    private final Map<String, Double> dates = new HashMap<>();
+
+    /**
+     * @param maxCacheSize distinct texts cached per type, the next ones are parsed every time
+     */
+    public CellValueParser(int maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    /**
+     * @return the number, null if the value is not a number or not finite (a cell cannot hold NaN or Infinity)
+     */
+    public Double toNumber(Object value) {
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            return Double.isFinite(number) ? number : null;
+        }
+        return value instanceof String ? cached(numbers, (String) value, CellValueParser::parseNumber) : null;
+    }
+
+    /**
+     * @return Excel serial date, null if the value is not a date
+     */
+    public Double toDate(Object value) {
+        if (value instanceof Date) {
+            return DateUtil.getExcelDate((Date) value);
+        }
+        if (value instanceof LocalDateTime) {
+            return serial((LocalDateTime) value);
+        }
+        if (value instanceof LocalDate) {
+            return serial(((LocalDate) value).atStartOfDay());
+        }
+        return value instanceof String ? cached(dates, (String) value, CellValueParser::parseDate) : null;
+    }
+
+    /**
+     * @return whether the serial date has a time of day
+     */
+    public static boolean hasTime(double serial) {
+        return serial != Math.floor(serial);
+    }
+
+    private Double cached(Map<String, Double> cache, String text, Function<String, Double> parser) {
+        Double result = cache.get(text);
+        if (result == null) {
+            result = parser.apply(text);
+            if (result == null) {
+                result = INVALID;
+            }
+            if (cache.size() < maxCacheSize) {
+                cache.put(text, result);
+            }
+        }
+        return result.isNaN() ? null : result;
+    }
+
+    private static Double parseNumber(String text) {
+        String number = text.trim();
+        if (number.isEmpty()) {
+            return null;
+        }
+        // only plain decimals, Double.parseDouble alone also takes NaN, Infinity, hex and type suffixes like 1d
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+                return null;
+            }
+        }
+        try {
+            // 1e999 parses as Infinity
+            double parsed = Double.parseDouble(number);
+            return Double.isFinite(parsed) ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDate(String text) {
+        String date = text.trim();
+        try {
+            if (date.length() == 10) {
+                return serial(LocalDate.parse(date).atStartOfDay());
+            }
+            return serial(LocalDateTime.parse(date.replace(' ', 'T')));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Double serial(LocalDateTime dateTime) {
+        if (dateTime.toLocalDate().isBefore(FIRST_DATE)) {
+            return null;
+        }
+        long days = ChronoUnit.DAYS.between(EXCEL_EPOCH, dateTime);
+        long millis = dateTime.toLocalTime().toNanoOfDay() / 1_000_000;
+        return days + (millis == 0 ? 0 : millis / MILLIS_PER_DAY);
+    }
+}
@@ -0,0 +1,105 @@
+package com.antra.evaluation.reporting_system.service;
+
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataHeader;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.List;
+
+/**
+ * ColumnWidthEstimator replaces Sheet.autoSizeColumn, which lays out every cell with AWT font metrics and cannot see
+ * the rows already flushed by a streaming workbook. It counts the characters of the longest line of each column
+ * while the rows are written, optionally only in the first sampleRows rows, and sets all the widths in one pass.
+ * East Asian wide characters count twice and the header text is scaled up to its larger bold font.
+ * A column with an explicit ExcelDataHeader.width keeps that width.
+ */
+public class ColumnWidthEstimator {
+    /** Ratio of the 16pt bold Arial header font to the 11pt default font */
+    static final float HEADER_FONT_SCALE = 1.6f;
+    /** Space for the cell margins, in characters */
+    static final int PADDING = 2;
+    /** Excel column width limit, in 1/256 of a character */
+    static final int MAX_WIDTH = 255 * 256;
+
+    private final float[] maxChars;
+    private final int sampleRows;
+    private final float headerFontScale;
+
+    /**
+     * @param columns number of columns of the sheet
+     * @param sampleRows number of data rows to measure, 0 or less measures all of them
+     */
+    public ColumnWidthEstimator(int columns, int sampleRows) {
+        this(columns, sampleRows, HEADER_FONT_SCALE);
+    }
+
+    /**
+     * @param headerFontScale ratio of the header font to the default font
+     */
+    public ColumnWidthEstimator(int columns, int sampleRows, float headerFontScale) {
+        this.maxChars = new float[columns];
+        this.sampleRows = sampleRows;
+        this.headerFontScale = headerFontScale;
+    }
+
+    public void measureHeader(int column, String text) {
+        track(column, chars(text) * headerFontScale);
+    }
+
+    /**
+     * @param rowIndex index of the data row, starting at 0
+     * @return whether the cells of the data row should be measured
+     */
+    public boolean samples(int rowIndex) {
+        return sampleRows <= 0 || rowIndex < sampleRows;
+    }
+
+    public void measure(int column, String text) {
+        track(column, chars(text));
+    }
+
+    /**
+     * Set the width of every column of the sheet
+     * @param sheet sheet the measured rows were written to
+     * @param headers headers of the sheet, a positive width is used as it is
+     */
+    public void apply(Sheet sheet, List<ExcelDataHeader> headers) {
+        for (int i = 0; i < maxChars.length; i++) {
+            int width = i < headers.size() ? headers.get(i).getWidth() : 0;
+            sheet.setColumnWidth(i, width > 0 ? width : width(i));
+        }
+    }
+
+    int width(int column) {
+        return Math.min(MAX_WIDTH, Math.round((maxChars[column] + PADDING) * 256));
+    }
+
+    private void track(int column, float chars) {
+        if (column < maxChars.length && chars > maxChars[column]) {
+            maxChars[column] = chars;
+        }
+    }
+
+    /**
+     * Display width of the longest line of the text, in default font characters
+     */
+    static int chars(String text) {
+        int longest = 0;
+        int line = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                longest = Math.max(longest, line);
+                line = 0;
+            } else {
+                line += isWide(c) ? 2 : 1;
+            }
+        }
+        return Math.max(longest, line);
+    }
+
+    private static boolean isWide(char c) {
+        // CJK, Hangul and the full width forms
+        return c >= 0x1100 && (c <= 0x115F || (c >= 0x2E80 && c <= 0xA4CF) || (c >= 0xAC00 && c <= 0xD7A3)
+                || (c >= 0xF900 && c <= 0xFAFF) || (c >= 0xFF00 && c <= 0xFF60) || (c >= 0xFFE0 && c <= 0xFFE6));
+    }
+}
@@ -4,7 +4,10 @@ import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 
 public interface ExcelGenerationService {
     File generateExcelReport(ExcelData data) throws IOException;
+
+    void writeExcelReport(ExcelData data, OutputStream out) throws IOException;
 }
@@ -3,16 +3,26 @@ package com.antra.evaluation.reporting_system.service;
 import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
 import com.antra.evaluation.reporting_system.pojo.report.ExcelDataHeader;
 import com.antra.evaluation.reporting_system.pojo.report.ExcelDataSheet;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataType;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PreDestroy;
+
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Data Stucture
@@ -29,6 +39,110 @@ import java.util.List;
 @Service
 public class ExcelGenerationServiceImpl implements ExcelGenerationService {
 
+    private static final Logger log = LoggerFactory.getLogger(ExcelGenerationServiceImpl.class);
+
+    private final int streamingRowThreshold;
+
+    private final int streamingWindowSize;
+
+    private final int columnWidthSampleRows;
+
+    private final StringStorage stringStorage;
+
+    /** Renders the sheets of a multi-sheet report with the native writer, null when they are rendered one after the other */
+    private final ForkJoinPool sheetPool;
+
+    private final Engine engine;
+
+    private final NativeExcelGenerationService nativeService;
+
+    private final ExcelStyleTemplates styleTemplates;
+
+    /**
+     * Library writing the workbook. NATIVE writes the xlsx parts directly, see {@link NativeExcelGenerationService}.
+     * AUTO uses NATIVE for every report it supports and POI for the others, and keeps POI where the native writer would
+     * ignore a setting: app.excel.strings=shared (the native writer only writes inline strings).
+     * Only the native writer renders the sheets of a report in parallel, POI writes them one after the other.
+     */
+    public enum Engine { POI, NATIVE, AUTO }
+
+    /**
+     * How a streamed workbook stores its text cells. SHARED writes each distinct text once in the shared strings table,
+     * which stays in memory until the workbook is written. INLINE writes the text into every cell and keeps nothing,
+     * better for high-cardinality text. AUTO picks INLINE when most of the sampled text cells are distinct.
+     * The in-memory workbook always uses the shared strings table.
+     */
+    public enum StringStorage { SHARED, INLINE, AUTO }
+
+    static final String DATE_FORMAT = "yyyy-mm-dd";
+
+    static final String DATE_TIME_FORMAT = "yyyy-mm-dd hh:mm:ss";
+
+    /** Text cells sampled by StringStorage.AUTO */
+    private static final int STRING_SAMPLE_SIZE = 1000;
+
+    /** Distinct number and date texts cached by the parser of a sheet */
+    static final int PARSE_CACHE_SIZE = 10_000;
+
+    public ExcelGenerationServiceImpl(@Value("${app.excel.streaming.row-threshold:10000}") int streamingRowThreshold,
+                                      @Value("${app.excel.streaming.window-size:100}") int streamingWindowSize,
+                                      @Value("${app.excel.column-width.sample-rows:0}") int columnWidthSampleRows,
+                                      @Value("${app.excel.strings:auto}") StringStorage stringStorage,
+                                      @Value("${app.excel.parallel.parallelism:0}") int parallelism,
+                                      @Value("${app.excel.engine:auto}") Engine engine,
+                                      ExcelStyleTemplates styleTemplates) {
+        this.streamingRowThreshold = streamingRowThreshold;
+        this.streamingWindowSize = streamingWindowSize;
+        this.columnWidthSampleRows = columnWidthSampleRows;
+        this.stringStorage = stringStorage;
+        // 0 uses every core
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.sheetPool = threads > 1 ? new ForkJoinPool(threads) : null;
+        this.engine = engine;
+        this.styleTemplates = styleTemplates;
+        this.nativeService = new NativeExcelGenerationService(columnWidthSampleRows, styleTemplates);
+    }
+
+    static ExcelDataType typeOf(List<ExcelDataHeader> headers, int column) {
+        ExcelDataType type = column < headers.size() ? headers.get(column).getType() : null;
+        return type == null ? ExcelDataType.STRING : type;
+    }
+
+    private boolean useNative(ExcelData data) {
+        if (engine != Engine.AUTO) {
+            return engine == Engine.NATIVE;
+        }
+        return stringStorage != StringStorage.SHARED && NativeExcelGenerationService.supports(data);
+    }
+
+    /**
+     * Sample the text cells of the report to decide between the shared strings table and inline strings
+     */
+    private boolean useSharedStrings(ExcelData data) {
+        if (stringStorage != StringStorage.AUTO) {
+            return stringStorage == StringStorage.SHARED;
+        }
+        Set<String> distinct = new HashSet<>();
+        int sampled = 0;
+        for (ExcelDataSheet sheet : data.getSheets()) {
+            for (List<?> row : sheet.getDataRows()) {
+                for (int j = 0; j < row.size(); j++) {
+                    if (typeOf(sheet.getHeaders(), j) == ExcelDataType.STRING) {
+                        distinct.add(String.valueOf(row.get(j)));
+                        if (++sampled == STRING_SAMPLE_SIZE) {
+                            return distinct.size() * 2 <= sampled;
+                        }
+                    }
+                }
+            }
+        }
+        return distinct.size() * 2 <= sampled;
+    }
+
+    /**
+     * Check the sheets before anything is written. The length of the data rows is checked by the write pass,
+     * see {@link #validateRow(List, List)}, so the rows are only read once.
+     */
     private void validateDate(ExcelData data) {
         if (data.getSheets().size() < 1) {
             throw new RuntimeException("Excel Data Error: no sheet is defined");
@@ -37,14 +151,15 @@ public class ExcelGenerationServiceImpl implements ExcelGenerationService {
             if (StringUtils.isEmpty(sheet.getTitle())) {
                 throw new RuntimeException("Excel Data Error: sheet title is missing");
             }
-            if(sheet.getHeaders() != null) {
-                int columns = sheet.getHeaders().size();
-                for (List<Object> dataRow : sheet.getDataRows()) {
-                    if (dataRow.size() != columns) {
-                        throw new RuntimeException("Excel Data Error: sheet data has difference length than header number");
-                    }
-                }
-            }
+        }
+    }
+
+    /**
+     * Check a data row right before it is written, the writer stops at the first bad row
+     */
+    static void validateRow(List<?> dataRow, List<ExcelDataHeader> headers) {
+        if (headers != null && dataRow.size() != headers.size()) {
+            throw new RuntimeException("Excel Data Error: sheet data has difference length than header number");
         }
     }
 
@@ -56,70 +171,138 @@ public class ExcelGenerationServiceImpl implements ExcelGenerationService {
      */
     @Override
     public File generateExcelReport(ExcelData data) throws IOException {
-        validateDate(data);
-        XSSFWorkbook workbook = new XSSFWorkbook();
-
-        CellStyle headerStyle = workbook.createCellStyle();
-        headerStyle.setFillForegroundColor(IndexedColors.GREY_40_PERCENT.getIndex());
-        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        XSSFFont font = workbook.createFont();
-        font.setFontName("Arial");
-        font.setFontHeightInPoints((short) 16);
-        font.setBold(true);
-        headerStyle.setFont(font);
-
-        CellStyle style = workbook.createCellStyle();
-        style.setWrapText(true);
-
-
-        for (ExcelDataSheet sheetData : data.getSheets()) {
-            Sheet sheet = workbook.createSheet(sheetData.getTitle());
-
-            Row header = sheet.createRow(0);
-            List<ExcelDataHeader> headersData = sheetData.getHeaders();
-            for (int i = 0; i < headersData.size(); i++) {
-                ExcelDataHeader headerData = headersData.get(i);
-                Cell headerCell = header.createCell(i);
-                headerCell.setCellValue(headerData.getName());
-                if(headerData.getWidth() > 0) sheet.setColumnWidth(i, headerData.getWidth());
-                headerCell.setCellValue(headerData.getName());
-                headerCell.setCellStyle(headerStyle);
-            }
-            var rowData = sheetData.getDataRows();
-            for (int i = 0; i < rowData.size(); i++) {
-                Row row = sheet.createRow(1 + i);
-                var eachRow = rowData.get(i);
-                for (int j = 0; j < eachRow.size(); j++) {
-                    Cell cell = row.createCell(j);
-//                    switch (headersData.get(j).getType()) {
-//                        case STRING:cell.setCellValue(String.valueOf(eachRow.get(j))); cell.setCellType(CellType.STRING);break;
-//                        case NUMBER: cell.setCellValue(eachRow.get(j));cell.setCellType(CellType.NUMERIC);break;
-//                        case DATE:cell.setCellValue((Date)eachRow.get(j));break;
-//                        default:cell.setCellValue(String.valueOf(eachRow.get(j)));break;
-//                    }
-                    cell.setCellValue(String.valueOf(eachRow.get(j)));
-                    cell.setCellStyle(style);
-                }
-            }
-            for (int i = 0; i < headersData.size(); i++) {
-                sheet.autoSizeColumn(i);
-            }
-        }
-
-
 //        File currDir = new File(".");
 //        String path = currDir.getAbsolutePath();
 //        String fileLocation = path.substring(0, path.length() - 1) + data.getFileId() +".xlsx";
         File outputFile = File.createTempFile("temp", ".xlsx");
-        FileOutputStream outputStream = new FileOutputStream(outputFile);
-        workbook.write(outputStream);
-        try {
-            workbook.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+        try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
+            writeExcelReport(data, outputStream);
+        } catch (IOException | RuntimeException e) {
+            // do not leave the partially written file behind
+            outputFile.delete();
+            throw e;
         }
 //        return new File(fileLocation);
         return outputFile;
     }
 
+    /**
+     * Write the Excel report to the stream, the stream is not closed
+     * The data rows are validated while they are written, so an invalid report fails part way through and the caller
+     * has to discard what the stream received (generateExcelReport deletes the file, S3StreamingUploader aborts the upload).
+     * A report with more data rows than app.excel.streaming.row-threshold is written with a streaming SXSSF workbook,
+     * which keeps only the last app.excel.streaming.window-size rows in memory and flushes the older rows to a temporary file.
+     * The native writer renders the sheets of a report with several sheets in parallel on the sheet pool
+     * (app.excel.parallel.parallelism threads, 1 renders them one after the other), each with its own writer.
+     * A POI workbook is not thread safe, so POI writes the sheets one after the other.
+     * Cells of NUMBER and DATE columns are written as numbers and dates, a value that does not parse is written as text.
+     * A sheet with more rows than Excel allows continues in the next sheets, see {@link ExcelReportSplitter#splitSheets}.
+     * Unless app.excel.engine is poi, the reports the native writer supports skip POI altogether, see {@link Engine}.
+     * The cell styles come from the style template named by the report, see {@link ExcelStyleTemplates}.
+     * @param data report data for generating Excel report
+     * @param out stream receiving the xlsx content
+     * @throws IOException
+     */
+    @Override
+    public void writeExcelReport(ExcelData data, OutputStream out) throws IOException {
+        validateDate(data);
+        data = ExcelReportSplitter.splitSheets(data, ExcelReportSplitter.MAX_SHEET_ROWS);
+        ExcelStyleTemplate template = styleTemplates.get(data.getTemplate());
+        if (useNative(data)) {
+            nativeService.writeExcelReport(data, out, sheetPool);
+            return;
+        }
+        int rowCount = data.getSheets().stream().mapToInt(sheet -> sheet.getDataRows().size()).sum();
+        boolean streaming = rowCount > streamingRowThreshold;
+        Workbook workbook = streaming ? new SXSSFWorkbook(null, streamingWindowSize, true, useSharedStrings(data)) : new XSSFWorkbook();
+        try {
+            ExcelStyleTemplate.Styles styles = template.createStyles(workbook);
+            for (ExcelDataSheet sheetData : data.getSheets()) {
+                Sheet sheet = workbook.createSheet(sheetData.getTitle());
+                writeSheet(sheet, sheetData, template, styles).apply(sheet, sheetData.getHeaders());
+            }
+
+            workbook.write(out);
+        } finally {
+            if (streaming) {
+                // delete the temporary files holding the flushed rows
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+            try {
+                workbook.close();
+            } catch (IOException e) {
+                log.warn("Cannot close the workbook", e);
+            }
+        }
+    }
+
+    /**
+     * Write the header and the data rows of one sheet
+     * @return column widths measured while writing, to apply once the rows are written
+     */
+    private ColumnWidthEstimator writeSheet(Sheet sheet, ExcelDataSheet sheetData, ExcelStyleTemplate template, ExcelStyleTemplate.Styles styles) {
+        CellValueParser parser = new CellValueParser(PARSE_CACHE_SIZE);
+        Row header = sheet.createRow(0);
+        List<ExcelDataHeader> headersData = sheetData.getHeaders();
+        // flushed rows are gone, so the column widths are measured while the rows are written
+        ColumnWidthEstimator widths = new ColumnWidthEstimator(headersData.size(), columnWidthSampleRows, template.getHeaderFontScale());
+        for (int i = 0; i < headersData.size(); i++) {
+            ExcelDataHeader headerData = headersData.get(i);
+            Cell headerCell = header.createCell(i);
+            headerCell.setCellValue(headerData.getName());
+            headerCell.setCellStyle(styles.header);
+            widths.measureHeader(i, headerData.getName());
+        }
+        ExcelDataType[] types = new ExcelDataType[headersData.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = typeOf(headersData, i);
+        }
+        var rowData = sheetData.getDataRows();
+        for (int i = 0; i < rowData.size(); i++) {
+            Row row = sheet.createRow(1 + i);
+            var eachRow = rowData.get(i);
+            validateRow(eachRow, headersData);
+            boolean measured = widths.samples(i);
+            for (int j = 0; j < eachRow.size(); j++) {
+                Cell cell = row.createCell(j);
+                Object value = eachRow.get(j);
+                ExcelDataType type = j < types.length ? types[j] : ExcelDataType.STRING;
+                Double number = null;
+                if (type == ExcelDataType.NUMBER) {
+                    number = parser.toNumber(value);
+                } else if (type == ExcelDataType.DATE) {
+                    number = parser.toDate(value);
+                }
+                if (number == null) {
+                    String text = String.valueOf(value);
+                    cell.setCellValue(text);
+                    cell.setCellStyle(styles.text);
+                    if (measured) {
+                        widths.measure(j, text);
+                    }
+                } else if (type == ExcelDataType.DATE) {
+                    boolean hasTime = CellValueParser.hasTime(number);
+                    cell.setCellValue(number);
+                    cell.setCellStyle(hasTime ? styles.dateTime : styles.date);
+                    if (measured) {
+                        widths.measure(j, hasTime ? template.getDateTimeFormat() : template.getDateFormat());
+                    }
+                } else {
+                    cell.setCellValue(number);
+                    cell.setCellStyle(styles.number);
+                    if (measured) {
+                        widths.measure(j, String.valueOf(value));
+                    }
+                }
+            }
+        }
+        return widths;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sheetPool != null) {
+            sheetPool.shutdown();
+        }
+    }
 }
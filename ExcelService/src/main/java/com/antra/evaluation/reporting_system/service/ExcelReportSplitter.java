@@ -0,0 +1,118 @@
+package com.antra.evaluation.reporting_system.service;
+
+import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataSheet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * ExcelReportSplitter rolls the rows of a large report over to more sheets or more workbooks.
+ * The split sheets are subList views of the original rows, nothing is copied.
+ */
+public final class ExcelReportSplitter {
+    /** Data rows of a sheet, one row less than the Excel limit for the header */
+    public static final int MAX_SHEET_ROWS = NativeExcelGenerationService.MAX_ROWS - 1;
+
+    private ExcelReportSplitter() {
+    }
+
+    /**
+     * Split every sheet with more than sheetRows data rows into sheets of sheetRows rows.
+     * The following sheets are titled "title (2)", "title (3)"..., shortening the title to the 31 characters Excel allows.
+     * A number giving a title already in the workbook (ignoring case, like Excel) is skipped for the next one.
+     * @param sheetRows data rows of a sheet, 0 or less or above the Excel limit use the Excel limit
+     * @return the same data when no sheet is too large
+     */
+    public static ExcelData splitSheets(ExcelData data, int sheetRows) {
+        int limit = sheetRows > 0 && sheetRows < MAX_SHEET_ROWS ? sheetRows : MAX_SHEET_ROWS;
+        if (data.getSheets().stream().allMatch(sheet -> sheet.getDataRows().size() <= limit)) {
+            return data;
+        }
+        Set<String> titles = new HashSet<>();
+        for (ExcelDataSheet sheet : data.getSheets()) {
+            titles.add(sheet.getTitle().toLowerCase(Locale.ROOT));
+        }
+        List<ExcelDataSheet> sheets = new ArrayList<>();
+        for (ExcelDataSheet sheet : data.getSheets()) {
+            List<? extends List<?>> rows = sheet.getDataRows();
+            if (rows.size() <= limit) {
+                sheets.add(sheet);
+                continue;
+            }
+            int n = 1;
+            for (int from = 0; from < rows.size(); from += limit) {
+                String title = sheet.getTitle();
+                while (from > 0 && !titles.add((title = numbered(sheet.getTitle(), ++n)).toLowerCase(Locale.ROOT))) {
+                    // taken by another sheet, try the next number
+                }
+                sheets.add(view(sheet, title, from, Math.min(rows.size(), from + limit)));
+            }
+        }
+        return copyOf(data, sheets);
+    }
+
+    /**
+     * Split the report into workbooks of at most fileRows data rows, in the order of the sheets.
+     * A sheet crossing the end of a workbook continues with the same title in the next one.
+     * @param fileRows data rows of a workbook, 0 or less keeps one workbook
+     * @return the workbooks, only the given data when it is small enough
+     */
+    public static List<ExcelData> splitFiles(ExcelData data, int fileRows) {
+        int total = data.getSheets().stream().mapToInt(sheet -> sheet.getDataRows().size()).sum();
+        if (fileRows <= 0 || total <= fileRows) {
+            return List.of(data);
+        }
+        List<ExcelData> files = new ArrayList<>();
+        List<ExcelDataSheet> sheets = new ArrayList<>();
+        int fileSize = 0;
+        for (ExcelDataSheet sheet : data.getSheets()) {
+            int size = sheet.getDataRows().size();
+            if (size == 0) {
+                sheets.add(sheet);
+                continue;
+            }
+            for (int from = 0; from < size; ) {
+                int to = Math.min(size, from + fileRows - fileSize);
+                sheets.add(from == 0 && to == size ? sheet : view(sheet, sheet.getTitle(), from, to));
+                fileSize += to - from;
+                from = to;
+                if (fileSize == fileRows) {
+                    files.add(copyOf(data, sheets));
+                    sheets = new ArrayList<>();
+                    fileSize = 0;
+                }
+            }
+        }
+        if (!sheets.isEmpty()) {
+            files.add(copyOf(data, sheets));
+        }
+        return files;
+    }
+
+    private static String numbered(String title, int n) {
+        String suffix = " (" + n + ")";
+        return title.substring(0, Math.min(title.length(), NativeExcelGenerationService.MAX_SHEET_NAME_LENGTH - suffix.length())) + suffix;
+    }
+
+    private static ExcelDataSheet view(ExcelDataSheet sheet, String title, int from, int to) {
+        ExcelDataSheet part = new ExcelDataSheet();
+        part.setTitle(title);
+        part.setHeaders(sheet.getHeaders());
+        part.setDataRows(sheet.getDataRows().subList(from, to));
+        return part;
+    }
+
+    private static ExcelData copyOf(ExcelData data, List<ExcelDataSheet> sheets) {
+        ExcelData copy = new ExcelData();
+        copy.setTitle(data.getTitle());
+        copy.setSubmitter(data.getSubmitter());
+        copy.setFileId(data.getFileId());
+        copy.setTemplate(data.getTemplate());
+        copy.setSheets(sheets);
+        return copy;
+    }
+}
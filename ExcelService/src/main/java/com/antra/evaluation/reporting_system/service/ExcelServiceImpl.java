@@ -7,7 +7,9 @@ import com.antra.evaluation.reporting_system.pojo.api.MultiSheetExcelRequest;
 import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
 import com.antra.evaluation.reporting_system.pojo.report.ExcelDataHeader;
 import com.antra.evaluation.reporting_system.pojo.report.ExcelDataSheet;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataType;
 import com.antra.evaluation.reporting_system.pojo.report.ExcelFile;
+import com.antra.evaluation.reporting_system.pojo.report.IndexedRows;
 import com.antra.evaluation.reporting_system.repo.ExcelRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,29 +17,67 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.io.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class ExcelServiceImpl implements ExcelService {
 
     private static final Logger log = LoggerFactory.getLogger(ExcelServiceImpl.class);
 
+    public static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    public static final String ZIP_CONTENT_TYPE = "application/zip";
+
     private final ExcelRepository excelRepository;
 
     private ExcelGenerationService excelGenerationService;
 
     private final AmazonS3 s3Client;
 
+    private final S3StreamingUploader s3Uploader;
+
+    private final int sheetRows;
+
+    private final int fileRows;
+
+    /** Generates the workbooks of a report split into several files */
+    private final ExecutorService partExecutor;
+
+    private final int partParallelism;
+
     @Value("${s3.bucket}")
     private String s3Bucket;
     @Autowired
-    public ExcelServiceImpl(ExcelRepository excelRepository, ExcelGenerationService excelGenerationService, AmazonS3 s3Client) {
+    public ExcelServiceImpl(ExcelRepository excelRepository, ExcelGenerationService excelGenerationService, AmazonS3 s3Client,
+                            S3StreamingUploader s3Uploader,
+                            @Value("${app.excel.rollover.sheet-rows:0}") int sheetRows,
+                            @Value("${app.excel.rollover.file-rows:0}") int fileRows,
+                            @Value("${app.excel.rollover.file-parallelism:0}") int fileParallelism) {
         this.excelRepository = excelRepository;
         this.excelGenerationService = excelGenerationService;
         this.s3Client = s3Client;
+        this.s3Uploader = s3Uploader;
+        this.sheetRows = sheetRows;
+        this.fileRows = fileRows;
+        // 0 uses every core
+        this.partParallelism = fileParallelism > 0 ? fileParallelism : Runtime.getRuntime().availableProcessors();
+        this.partExecutor = Executors.newFixedThreadPool(partParallelism, r -> {
+            Thread thread = new Thread(r, "excel-part");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
@@ -54,6 +94,9 @@ public class ExcelServiceImpl implements ExcelService {
 
     /**
      * Generate Excel report and save to S3 storage
+     * A sheet with more than app.excel.rollover.sheet-rows rows (0 = the Excel limit) continues in the next sheets.
+     * A report with more than app.excel.rollover.file-rows rows (0 = no limit) is split into several workbooks,
+     * generated in parallel and stored as one zip file listing them in fileParts.
      * @param request report data for generating Excel report file
      * @param multisheet if its a multisheet request
      * @return Excel file with set file location
@@ -66,37 +109,100 @@ public class ExcelServiceImpl implements ExcelService {
         data.setTitle(request.getDescription());
         data.setFileId(fileInfo.getFileId());
         data.setSubmitter(fileInfo.getSubmitter());
+        data.setTemplate(request.getTemplate());
         if(multisheet){
             data.setSheets(generateMultiSheet(request));
         }else {
             data.setSheets(generateSheet(request));
         }
+        List<ExcelData> parts = ExcelReportSplitter.splitFiles(ExcelReportSplitter.splitSheets(data, sheetRows), fileRows);
         try {
-            File generatedFile = excelGenerationService.generateExcelReport(data);
-            fileInfo.setFileLocation(generatedFile.getAbsolutePath());
-            fileInfo.setFileName(generatedFile.getName());
+            S3MultipartOutputStream upload;
+            if (parts.size() == 1) {
+                upload = s3Uploader.upload(fileInfo.getFileId(), XLSX_CONTENT_TYPE,
+                        out -> excelGenerationService.writeExcelReport(parts.get(0), out));
+                fileInfo.setFileName(fileInfo.getFileId() + ".xlsx");
+            } else {
+                List<String> partNames = new ArrayList<>();
+                for (int i = 1; i <= parts.size(); i++) {
+                    partNames.add(fileInfo.getFileId() + "-" + i + ".xlsx");
+                }
+                upload = s3Uploader.upload(fileInfo.getFileId(), ZIP_CONTENT_TYPE, out -> writeParts(parts, partNames, out));
+                fileInfo.setFileName(fileInfo.getFileId() + ".zip");
+                fileInfo.setFileParts(partNames);
+            }
             fileInfo.setGeneratedTime(LocalDateTime.now());
             fileInfo.setSubmitter(request.getSubmitter());
-            fileInfo.setFileSize(generatedFile.length());
+            fileInfo.setFileSize(upload.getSize());
+            fileInfo.setChecksum(upload.getChecksum());
             fileInfo.setDescription(request.getDescription());
         } catch (IOException e) {
 //            log.error("Error in generateFile()", e);
             throw new FileGenerationException(e);
         }
-        File temp = new File(fileInfo.getFileLocation());
-        log.debug("Excel File Generated : {}", fileInfo);
-        s3Client.putObject(s3Bucket, fileInfo.getFileId(), temp);
-        log.debug("Uploaded");
+        log.debug("Excel File Generated and uploaded : {}", fileInfo);
 
         fileInfo.setFileLocation(String.join("/",s3Bucket,fileInfo.getFileId()));
         excelRepository.save(fileInfo);
+        return fileInfo;
+    }
+
+    /**
+     * Generate the workbooks in parallel and zip them in order, each one as soon as it and the previous ones are done.
+     * The workbooks are rendered in memory, no temp file is written: at most partParallelism of them are generated ahead
+     * of the one being zipped, so that is also the number of workbooks held on the heap at a time.
+     */
+    private void writeParts(List<ExcelData> parts, List<String> partNames, OutputStream out) throws IOException {
+        AtomicBoolean failed = new AtomicBoolean();
+        List<CompletableFuture<byte[]>> workbooks = new ArrayList<>(parts.size());
+        for (int i = 0; i < Math.min(partParallelism, parts.size()); i++) {
+            workbooks.add(generatePart(parts.get(i), failed));
+        }
+        // closing the zip ends its Deflater, the stream itself stays open
+        try (ZipOutputStream zip = new ZipOutputStream(new NonClosingOutputStream(out))) {
+            // the workbooks are compressed already
+            zip.setLevel(Deflater.NO_COMPRESSION);
+            for (int i = 0; i < parts.size(); i++) {
+                byte[] workbook = join(workbooks.get(i));
+                workbooks.set(i, null);
+                if (i + partParallelism < parts.size()) {
+                    workbooks.add(generatePart(parts.get(i + partParallelism), failed));
+                }
+                zip.putNextEntry(new ZipEntry(partNames.get(i)));
+                zip.write(workbook);
+                zip.closeEntry();
+            }
+        } catch (IOException | RuntimeException e) {
+            // skip the parts not started yet
+            failed.set(true);
+            throw e;
+        }
+    }
 
+    private CompletableFuture<byte[]> generatePart(ExcelData part, AtomicBoolean failed) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (failed.get()) {
+                return null;
+            }
+            ByteArrayOutputStream workbook = new ByteArrayOutputStream();
+            try {
+                excelGenerationService.writeExcelReport(part, workbook);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return workbook.toByteArray();
+        }, partExecutor);
+    }
 
-        log.debug("clear tem file {}", fileInfo.getFileLocation());
-        if(temp.delete()){
-            log.debug("cleared");
+    private static byte[] join(CompletableFuture<byte[]> workbook) throws IOException {
+        try {
+            return workbook.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
         }
-        return fileInfo;
     }
 
     /**
@@ -128,33 +234,59 @@ public class ExcelServiceImpl implements ExcelService {
         return excelFile;
     }
 
+    private List<ExcelDataHeader> generateHeaders(ExcelRequest request) {
+        List<ExcelDataHeader> headers = request.getHeaders().stream().map(ExcelDataHeader::new).collect(Collectors.toList());
+        List<ExcelDataType> types = request.getTypes();
+        if (types != null) {
+            for (int i = 0; i < headers.size() && i < types.size(); i++) {
+                headers.get(i).setType(types.get(i));
+            }
+        }
+        return headers;
+    }
+
     private List<ExcelDataSheet> generateSheet(ExcelRequest request) {
         List<ExcelDataSheet> sheets = new ArrayList<>();
         ExcelDataSheet sheet = new ExcelDataSheet();
-        sheet.setHeaders(request.getHeaders().stream().map(ExcelDataHeader::new).collect(Collectors.toList()));
-        sheet.setDataRows(request.getData().stream().map(listOfString -> (List<Object>) new ArrayList<Object>(listOfString)).collect(Collectors.toList()));
+        sheet.setHeaders(generateHeaders(request));
+        // the sheet reads the request rows as they are
+        sheet.setDataRows(request.getData());
         sheet.setTitle("sheet-1");
         sheets.add(sheet);
         return sheets;
     }
+
+    /**
+     * One sheet per value of the splitBy column, sorted by value. The sheets are views of the request rows by index.
+     */
     private List<ExcelDataSheet> generateMultiSheet(ExcelRequest request) {
         List<ExcelDataSheet> sheets = new ArrayList<>();
         int index = request.getHeaders().indexOf(((MultiSheetExcelRequest) request).getSplitBy());
-        Map<String, List<List<String>>> splittedData = request.getData().stream().collect(Collectors.groupingBy(row -> (String)row.get(index)));
-        List<ExcelDataHeader> headers = request.getHeaders().stream().map(ExcelDataHeader::new).collect(Collectors.toList());
-        splittedData.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(
-                entry ->{
-                    ExcelDataSheet sheet = new ExcelDataSheet();
-                    sheet.setHeaders(headers);
-                    sheet.setDataRows(entry.getValue().stream().map(listOfString -> {
-                        List<Object> listOfObject = new ArrayList<>();
-                        listOfString.forEach(listOfObject::add);
-                        return listOfObject;
-                    }).collect(Collectors.toList()));
-                    sheet.setTitle(entry.getKey());
-                    sheets.add(sheet);
-                }
-        );
+        List<List<String>> data = request.getData();
+        Map<String, int[]> counts = new TreeMap<>();
+        for (List<String> row : data) {
+            counts.computeIfAbsent(row.get(index), key -> new int[1])[0]++;
+        }
+        // count the rows of every sheet, then fill the row indexes back to front so each sheet keeps the request order
+        Map<String, int[]> splittedIndexes = new HashMap<>();
+        counts.forEach((key, count) -> splittedIndexes.put(key, new int[count[0]]));
+        for (int i = data.size() - 1; i >= 0; i--) {
+            String key = data.get(i).get(index);
+            splittedIndexes.get(key)[--counts.get(key)[0]] = i;
+        }
+        List<ExcelDataHeader> headers = generateHeaders(request);
+        for (String key : counts.keySet()) {
+            ExcelDataSheet sheet = new ExcelDataSheet();
+            sheet.setHeaders(headers);
+            sheet.setDataRows(new IndexedRows(data, splittedIndexes.get(key)));
+            sheet.setTitle(key);
+            sheets.add(sheet);
+        }
         return sheets;
     }
+
+    @PreDestroy
+    public void shutdown() {
+        partExecutor.shutdown();
+    }
 }
@@ -0,0 +1,154 @@
+package com.antra.evaluation.reporting_system.service;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ExcelStyleTemplate is a named look of the generated reports: the header font and fill, whether the text cells wrap
+ * and the date formats. Number cells are always right aligned without wrapping. It is immutable and shared by all the
+ * reports using it, the styles.xml part of the native writer is rendered once when the template is created. Only the
+ * native writer shares the rendered styles: POI cell styles and fonts belong to the StylesTable of one workbook and
+ * cannot be cached or cloned across workbooks, so {@link #createStyles(Workbook)} still adds them to every POI workbook,
+ * once per workbook whatever its sheets and rows.
+ * See {@link ExcelStyleTemplates} for the templates a request can select.
+ */
+public class ExcelStyleTemplate {
+    /** headerFill of a header without background */
+    public static final short NO_FILL = -1;
+
+    // cellXfs indexes of the styles part
+    static final int STYLE_HEADER = 1;
+    static final int STYLE_TEXT = 2;
+    static final int STYLE_DATE = 3;
+    static final int STYLE_DATE_TIME = 4;
+    static final int STYLE_NUMBER = 5;
+
+    private final String name;
+    private final String headerFontName;
+    private final short headerFontSize;
+    private final boolean headerBold;
+    private final short headerFill;
+    private final boolean wrapText;
+    private final String dateFormat;
+    private final String dateTimeFormat;
+    private final byte[] stylesPart;
+
+    /**
+     * @param headerFill IndexedColors index of the solid header background, or NO_FILL
+     */
+    public ExcelStyleTemplate(String name, String headerFontName, short headerFontSize, boolean headerBold, short headerFill,
+                              boolean wrapText, String dateFormat, String dateTimeFormat) {
+        this.name = name;
+        this.headerFontName = headerFontName;
+        this.headerFontSize = headerFontSize;
+        this.headerBold = headerBold;
+        this.headerFill = headerFill;
+        this.wrapText = wrapText;
+        this.dateFormat = dateFormat;
+        this.dateTimeFormat = dateTimeFormat;
+        this.stylesPart = renderStylesPart().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDateFormat() {
+        return dateFormat;
+    }
+
+    public String getDateTimeFormat() {
+        return dateTimeFormat;
+    }
+
+    /**
+     * Width of a header character in default font characters, the ratio of the header font size to the 11pt body font
+     */
+    public float getHeaderFontScale() {
+        return headerFontSize / 11f;
+    }
+
+    /**
+     * xl/styles.xml of the native writer, the cellXfs indexes are the STYLE_ constants. The array is shared, do not modify it.
+     */
+    byte[] getStylesPart() {
+        return stylesPart;
+    }
+
+    /**
+     * Add the cell styles of the template to the workbook, call it once per workbook and share the result by its sheets
+     */
+    public Styles createStyles(Workbook workbook) {
+        return new Styles(workbook);
+    }
+
+    private String renderStylesPart() {
+        String alignment = wrapText ? " applyAlignment=\"1\"><alignment wrapText=\"1\"/></xf>" : "/>";
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<numFmts count=\"2\"><numFmt numFmtId=\"164\" formatCode=\"" + escape(dateFormat) + "\"/>"
+                + "<numFmt numFmtId=\"165\" formatCode=\"" + escape(dateTimeFormat) + "\"/></numFmts>"
+                + "<fonts count=\"2\"><font><sz val=\"11\"/><color indexed=\"8\"/><name val=\"Calibri\"/><family val=\"2\"/><scheme val=\"minor\"/></font>"
+                + "<font>" + (headerBold ? "<b/>" : "") + "<sz val=\"" + headerFontSize + "\"/><name val=\"" + escape(headerFontName) + "\"/></font></fonts>"
+                + "<fills count=\"3\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill>"
+                + (headerFill == NO_FILL ? "<fill><patternFill patternType=\"none\"/></fill>"
+                        : "<fill><patternFill patternType=\"solid\"><fgColor indexed=\"" + headerFill + "\"/></patternFill></fill>") + "</fills>"
+                + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+                + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                + "<cellXfs count=\"6\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"2\" borderId=\"0\" xfId=\"0\" applyFont=\"1\" applyFill=\"1\"/>"
+                + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"" + alignment
+                + "<xf numFmtId=\"164\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"" + alignment
+                + "<xf numFmtId=\"165\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"" + alignment
+                + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyAlignment=\"1\"><alignment horizontal=\"right\"/></xf></cellXfs>"
+                + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+                + "</styleSheet>";
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * Cell styles of the template in one workbook, created before the sheets are written and only read by them
+     */
+    public class Styles {
+        final CellStyle header;
+        final CellStyle text;
+        final CellStyle date;
+        final CellStyle dateTime;
+        final CellStyle number;
+
+        private Styles(Workbook workbook) {
+            header = workbook.createCellStyle();
+            if (headerFill != NO_FILL) {
+                header.setFillForegroundColor(headerFill);
+                header.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            }
+            Font font = workbook.createFont();
+            font.setFontName(headerFontName);
+            font.setFontHeightInPoints(headerFontSize);
+            font.setBold(headerBold);
+            header.setFont(font);
+
+            text = workbook.createCellStyle();
+            text.setWrapText(wrapText);
+            DataFormat dataFormat = workbook.createDataFormat();
+            date = workbook.createCellStyle();
+            date.cloneStyleFrom(text);
+            date.setDataFormat(dataFormat.getFormat(dateFormat));
+            dateTime = workbook.createCellStyle();
+            dateTime.cloneStyleFrom(text);
+            dateTime.setDataFormat(dataFormat.getFormat(dateTimeFormat));
+            // numbers never wrap, whatever the template says about text
+            number = workbook.createCellStyle();
+            number.setAlignment(HorizontalAlignment.RIGHT);
+        }
+    }
+}
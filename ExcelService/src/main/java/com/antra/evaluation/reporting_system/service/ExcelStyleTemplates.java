@@ -0,0 +1,45 @@
+package com.antra.evaluation.reporting_system.service;
+
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ExcelStyleTemplates is the registry of the style templates a report request can select by name.
+ * "default" is the original look (grey Arial 16 bold header, wrapped text) and "plain" a bold 11pt header
+ * without fill or wrapping. More looks are added once with {@link #register(ExcelStyleTemplate)}.
+ */
+@Component
+public class ExcelStyleTemplates {
+    public static final String DEFAULT = "default";
+
+    private final Map<String, ExcelStyleTemplate> templates = new ConcurrentHashMap<>();
+
+    public ExcelStyleTemplates() {
+        register(new ExcelStyleTemplate(DEFAULT, "Arial", (short) 16, true, IndexedColors.GREY_40_PERCENT.getIndex(), true,
+                ExcelGenerationServiceImpl.DATE_FORMAT, ExcelGenerationServiceImpl.DATE_TIME_FORMAT));
+        register(new ExcelStyleTemplate("plain", "Calibri", (short) 11, true, ExcelStyleTemplate.NO_FILL, false,
+                ExcelGenerationServiceImpl.DATE_FORMAT, ExcelGenerationServiceImpl.DATE_TIME_FORMAT));
+    }
+
+    /**
+     * Add a template, replacing the template with the same name
+     */
+    public void register(ExcelStyleTemplate template) {
+        templates.put(template.getName(), template);
+    }
+
+    /**
+     * @param name template name, null or empty for the default template
+     * @return the template with the name
+     */
+    public ExcelStyleTemplate get(String name) {
+        ExcelStyleTemplate template = templates.get(name == null || name.isEmpty() ? DEFAULT : name);
+        if (template == null) {
+            throw new IllegalArgumentException("Excel Data Error: unknown style template " + name);
+        }
+        return template;
+    }
+}
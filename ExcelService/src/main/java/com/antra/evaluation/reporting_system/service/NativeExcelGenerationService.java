@@ -0,0 +1,412 @@
+package com.antra.evaluation.reporting_system.service;
+
+import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataHeader;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataSheet;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataType;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * NativeExcelGenerationService writes the xlsx package of a plain tabular report without POI.
+ * The workbook, styles and sheet XML parts go straight to a ZipOutputStream in one pass over the rows,
+ * with inline strings. The styles part is the one the style template of the report rendered once, see {@link ExcelStyleTemplate}.
+ * Column widths come from a {@link ColumnWidthEstimator} pass over the rows (or the sampled ones) before the sheet is written,
+ * because the cols element comes before the rows in the sheet XML.
+ * Given an executor, the sheet parts of a multi-sheet report are rendered concurrently, each by its own writer into its own
+ * temporary file, and copied into the package in sheet order once rendered. Nothing is shared between the sheet writers.
+ */
+public class NativeExcelGenerationService implements ExcelGenerationService {
+    /** Rows of a sheet, including the header row */
+    static final int MAX_ROWS = 1_048_576;
+    /** Columns of a sheet, the last one is XFD */
+    static final int MAX_COLUMNS = 16_384;
+    static final int MAX_TEXT_LENGTH = 32_767;
+    static final int MAX_SHEET_NAME_LENGTH = 31;
+
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private final int columnWidthSampleRows;
+
+    private final ExcelStyleTemplates styleTemplates;
+
+    public NativeExcelGenerationService(int columnWidthSampleRows, ExcelStyleTemplates styleTemplates) {
+        this.columnWidthSampleRows = columnWidthSampleRows;
+        this.styleTemplates = styleTemplates;
+    }
+
+    /**
+     * Whether the report can be written without POI: sheet titles that Excel accepts, unique ignoring case,
+     * and no more rows or columns than a sheet holds. Everything else about the report is plain rows.
+     */
+    public static boolean supports(ExcelData data) {
+        Set<String> titles = new HashSet<>();
+        for (ExcelDataSheet sheet : data.getSheets()) {
+            String title = sheet.getTitle();
+            if (title == null || title.isEmpty() || title.length() > MAX_SHEET_NAME_LENGTH || title.startsWith("'") || title.endsWith("'")
+                    || !titles.add(title.toLowerCase(Locale.ROOT)) || sheet.getDataRows().size() >= MAX_ROWS) {
+                return false;
+            }
+            for (int i = 0; i < title.length(); i++) {
+                char c = title.charAt(i);
+                if (c == '/' || c == '\\' || c == '?' || c == '*' || c == ':' || c == '[' || c == ']' || c < 0x20) {
+                    return false;
+                }
+            }
+            // a row has to be as long as the headers, both writers fail a report with a longer one,
+            // so the header count bounds the rows too and they are not scanned here
+            if (sheet.getHeaders().size() > MAX_COLUMNS) {
+                return false;
+            }
+        }
+        return !data.getSheets().isEmpty();
+    }
+
+    @Override
+    public File generateExcelReport(ExcelData data) throws IOException {
+        File outputFile = File.createTempFile("temp", ".xlsx");
+        try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
+            writeExcelReport(data, outputStream);
+        } catch (IOException | RuntimeException e) {
+            outputFile.delete();
+            throw e;
+        }
+        return outputFile;
+    }
+
+    /**
+     * Write the xlsx package to the stream, the stream is not closed
+     * A data row whose length differs from the headers fails the report when the writer reaches it.
+     */
+    @Override
+    public void writeExcelReport(ExcelData data, OutputStream out) throws IOException {
+        writeExcelReport(data, out, null);
+    }
+
+    /**
+     * Write the xlsx package to the stream, the stream is not closed
+     * @param sheetExecutor renders the sheet parts of a report with several sheets concurrently, null writes them one by one
+     */
+    public void writeExcelReport(ExcelData data, OutputStream out, ExecutorService sheetExecutor) throws IOException {
+        if (!supports(data)) {
+            throw new IllegalArgumentException("Excel Data Error: invalid, duplicated or oversized sheet");
+        }
+        ExcelStyleTemplate template = styleTemplates.get(data.getTemplate());
+        // closing the zip ends its Deflater, on the error path too, the stream itself stays open
+        try (ZipOutputStream zip = new ZipOutputStream(new NonClosingOutputStream(out))) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+            List<ExcelDataSheet> sheets = data.getSheets();
+
+            zip.putNextEntry(new ZipEntry("[Content_Types].xml"));
+            writer.write(XML_DECLARATION);
+            writer.write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                    + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+            for (int i = 1; i <= sheets.size(); i++) {
+                writer.write("<Override PartName=\"/xl/worksheets/sheet" + i
+                        + ".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+            }
+            writer.write("</Types>");
+            closeEntry(writer, zip);
+
+            zip.putNextEntry(new ZipEntry("_rels/.rels"));
+            writer.write(XML_DECLARATION);
+            writer.write("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            closeEntry(writer, zip);
+
+            zip.putNextEntry(new ZipEntry("xl/workbook.xml"));
+            writer.write(XML_DECLARATION);
+            writer.write("<workbook xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + REL_NS + "\"><bookViews><workbookView activeTab=\"0\"/></bookViews><sheets>");
+            for (int i = 1; i <= sheets.size(); i++) {
+                writer.write("<sheet name=\"");
+                escape(writer, sheets.get(i - 1).getTitle());
+                writer.write("\" sheetId=\"" + i + "\" r:id=\"rId" + i + "\"/>");
+            }
+            writer.write("</sheets></workbook>");
+            closeEntry(writer, zip);
+
+            zip.putNextEntry(new ZipEntry("xl/_rels/workbook.xml.rels"));
+            writer.write(XML_DECLARATION);
+            writer.write("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+            for (int i = 1; i <= sheets.size(); i++) {
+                writer.write("<Relationship Id=\"rId" + i + "\" Type=\"" + REL_NS + "/worksheet\" Target=\"worksheets/sheet" + i + ".xml\"/>");
+            }
+            writer.write("<Relationship Id=\"rId" + (sheets.size() + 1) + "\" Type=\"" + REL_NS + "/styles\" Target=\"styles.xml\"/>");
+            writer.write("</Relationships>");
+            closeEntry(writer, zip);
+
+            zip.putNextEntry(new ZipEntry("xl/styles.xml"));
+            writer.flush();
+            zip.write(template.getStylesPart());
+            closeEntry(writer, zip);
+
+            if (sheetExecutor != null && sheets.size() > 1) {
+                writeSheetsConcurrently(zip, sheets, template, sheetExecutor);
+                return;
+            }
+            for (int i = 1; i <= sheets.size(); i++) {
+                zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + i + ".xml"));
+                writeSheet(writer, sheets.get(i - 1), template, i == 1);
+                closeEntry(writer, zip);
+            }
+        }
+    }
+
+    private void writeSheetsConcurrently(ZipOutputStream zip, List<ExcelDataSheet> sheets, ExcelStyleTemplate template,
+                                         ExecutorService sheetExecutor) throws IOException {
+        // first failure of a sheet, the sheets that have not started yet are skipped once it is set
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<File>> parts = new ArrayList<>();
+        for (int i = 0; i < sheets.size(); i++) {
+            ExcelDataSheet sheet = sheets.get(i);
+            boolean selected = i == 0;
+            parts.add(sheetExecutor.submit(() -> {
+                if (failure.get() != null) {
+                    return null;
+                }
+                try {
+                    return renderSheet(sheet, template, selected);
+                } catch (IOException | RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                    throw e;
+                }
+            }));
+        }
+        try {
+            for (int i = 0; i < parts.size(); i++) {
+                File part = await(parts.get(i));
+                if (part == null || failure.get() != null) {
+                    break;
+                }
+                zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + (i + 1) + ".xml"));
+                Files.copy(part.toPath(), zip);
+                zip.closeEntry();
+            }
+        } finally {
+            // wait for every sheet, even after a failure, so no rendered part is left behind
+            for (Future<File> part : parts) {
+                File file = await(part);
+                if (file != null) {
+                    file.delete();
+                }
+            }
+        }
+        Throwable error = failure.get();
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error != null) {
+            throw (RuntimeException) error;
+        }
+    }
+
+    private File renderSheet(ExcelDataSheet sheet, ExcelStyleTemplate template, boolean selected) throws IOException {
+        File part = File.createTempFile("sheet", ".xml");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(part), StandardCharsets.UTF_8), 64 * 1024)) {
+            writeSheet(writer, sheet, template, selected);
+        } catch (IOException | RuntimeException | Error e) {
+            part.delete();
+            throw e;
+        }
+        return part;
+    }
+
+    /**
+     * @return the rendered part, null when the sheet failed or was skipped, the failure itself is in the failure reference
+     */
+    private static File await(Future<File> part) throws InterruptedIOException {
+        try {
+            return part.get();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering the sheets");
+        }
+    }
+
+    private void writeSheet(Writer writer, ExcelDataSheet sheetData, ExcelStyleTemplate template, boolean selected) throws IOException {
+        List<ExcelDataHeader> headers = sheetData.getHeaders();
+        List<? extends List<?>> rows = sheetData.getDataRows();
+        ExcelDataType[] types = new ExcelDataType[headers.size()];
+        String[] columnNames = new String[headers.size()];
+        for (int j = 0; j < headers.size(); j++) {
+            types[j] = ExcelGenerationServiceImpl.typeOf(headers, j);
+            columnNames[j] = columnName(j);
+        }
+        CellValueParser parser = new CellValueParser(ExcelGenerationServiceImpl.PARSE_CACHE_SIZE);
+        ColumnWidthEstimator widths = measure(sheetData, types, parser, template);
+
+        writer.write(XML_DECLARATION);
+        writer.write("<worksheet xmlns=\"" + MAIN_NS + "\">");
+        if (!headers.isEmpty()) {
+            writer.write("<dimension ref=\"A1:" + columnNames[headers.size() - 1] + (rows.size() + 1) + "\"/>");
+        }
+        writer.write(selected ? "<sheetViews><sheetView tabSelected=\"1\" workbookViewId=\"0\"/></sheetViews>"
+                : "<sheetViews><sheetView workbookViewId=\"0\"/></sheetViews>");
+        writer.write("<sheetFormatPr defaultRowHeight=\"15\"/>");
+        if (!headers.isEmpty()) {
+            writer.write("<cols>");
+            for (int j = 0; j < headers.size(); j++) {
+                int width = headers.get(j).getWidth() > 0 ? headers.get(j).getWidth() : widths.width(j);
+                writer.write("<col min=\"" + (j + 1) + "\" max=\"" + (j + 1) + "\" width=\"" + (width / 256d) + "\" customWidth=\"1\"/>");
+            }
+            writer.write("</cols>");
+        }
+        writer.write("<sheetData><row r=\"1\">");
+        for (int j = 0; j < headers.size(); j++) {
+            writeText(writer, columnNames[j], "1", ExcelStyleTemplate.STYLE_HEADER, headers.get(j).getName());
+        }
+        writer.write("</row>");
+        for (int i = 0; i < rows.size(); i++) {
+            List<?> row = rows.get(i);
+            ExcelGenerationServiceImpl.validateRow(row, headers);
+            String rowNumber = Integer.toString(i + 2);
+            writer.write("<row r=\"");
+            writer.write(rowNumber);
+            writer.write("\">");
+            for (int j = 0; j < row.size(); j++) {
+                Object value = row.get(j);
+                String column = j < columnNames.length ? columnNames[j] : columnName(j);
+                ExcelDataType type = j < types.length ? types[j] : ExcelDataType.STRING;
+                Double number = null;
+                if (type == ExcelDataType.NUMBER) {
+                    number = parser.toNumber(value);
+                } else if (type == ExcelDataType.DATE) {
+                    number = parser.toDate(value);
+                }
+                if (number == null) {
+                    writeText(writer, column, rowNumber, ExcelStyleTemplate.STYLE_TEXT, String.valueOf(value));
+                } else {
+                    int style = type == ExcelDataType.DATE ? (CellValueParser.hasTime(number) ? ExcelStyleTemplate.STYLE_DATE_TIME : ExcelStyleTemplate.STYLE_DATE) : ExcelStyleTemplate.STYLE_NUMBER;
+                    writer.write("<c r=\"");
+                    writer.write(column);
+                    writer.write(rowNumber);
+                    writer.write("\" s=\"");
+                    writer.write(Integer.toString(style));
+                    writer.write("\"><v>");
+                    writer.write(Double.toString(number));
+                    writer.write("</v></c>");
+                }
+            }
+            writer.write("</row>");
+        }
+        writer.write("</sheetData>"
+                + "<pageMargins left=\"0.7\" right=\"0.7\" top=\"0.75\" bottom=\"0.75\" header=\"0.3\" footer=\"0.3\"/>"
+                + "</worksheet>");
+    }
+
+    /**
+     * Measure the widths the same way the POI workbook does while writing
+     */
+    private ColumnWidthEstimator measure(ExcelDataSheet sheetData, ExcelDataType[] types, CellValueParser parser, ExcelStyleTemplate template) {
+        List<ExcelDataHeader> headers = sheetData.getHeaders();
+        ColumnWidthEstimator widths = new ColumnWidthEstimator(headers.size(), columnWidthSampleRows, template.getHeaderFontScale());
+        for (int j = 0; j < headers.size(); j++) {
+            widths.measureHeader(j, headers.get(j).getName());
+        }
+        List<? extends List<?>> rows = sheetData.getDataRows();
+        for (int i = 0; i < rows.size() && widths.samples(i); i++) {
+            List<?> row = rows.get(i);
+            for (int j = 0; j < row.size() && j < types.length; j++) {
+                Object value = row.get(j);
+                Double date = types[j] == ExcelDataType.DATE ? parser.toDate(value) : null;
+                if (date == null) {
+                    widths.measure(j, String.valueOf(value));
+                } else {
+                    widths.measure(j, CellValueParser.hasTime(date) ? template.getDateTimeFormat() : template.getDateFormat());
+                }
+            }
+        }
+        return widths;
+    }
+
+    private static void writeText(Writer writer, String column, String rowNumber, int style, String text) throws IOException {
+        if (text.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("The maximum length of cell contents (text) is " + MAX_TEXT_LENGTH + " characters");
+        }
+        writer.write("<c r=\"");
+        writer.write(column);
+        writer.write(rowNumber);
+        writer.write("\" s=\"");
+        writer.write(Integer.toString(style));
+        if (!text.isEmpty() && (Character.isWhitespace(text.charAt(0)) || Character.isWhitespace(text.charAt(text.length() - 1)))) {
+            writer.write("\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+        } else {
+            writer.write("\" t=\"inlineStr\"><is><t>");
+        }
+        escape(writer, text);
+        writer.write("</t></is></c>");
+    }
+
+    /**
+     * Escape the XML markup characters and drop the characters XML 1.0 does not allow
+     */
+    static void escape(Writer writer, String text) throws IOException {
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement;
+            if (c == '<') {
+                replacement = "&lt;";
+            } else if (c == '>') {
+                replacement = "&gt;";
+            } else if (c == '&') {
+                replacement = "&amp;";
+            } else if (c == '"') {
+                replacement = "&quot;";
+            } else if ((c < 0x20 && c != '\t' && c != '\n' && c != '\r') || c == 0xFFFE || c == 0xFFFF) {
+                replacement = "";
+            } else {
+                continue;
+            }
+            writer.write(text, start, i - start);
+            writer.write(replacement);
+            start = i + 1;
+        }
+        writer.write(text, start, text.length() - start);
+    }
+
+    /**
+     * @return column letters of the 0 based column index, A to XFD
+     */
+    static String columnName(int column) {
+        StringBuilder name = new StringBuilder();
+        for (int n = column + 1; n > 0; n = (n - 1) / 26) {
+            name.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return name.toString();
+    }
+
+    private static void closeEntry(Writer writer, ZipOutputStream zip) throws IOException {
+        writer.flush();
+        zip.closeEntry();
+    }
+}
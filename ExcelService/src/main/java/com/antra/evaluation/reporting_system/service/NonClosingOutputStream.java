@@ -0,0 +1,26 @@
+package com.antra.evaluation.reporting_system.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * NonClosingOutputStream lets a wrapping stream be closed, to release what it holds (the Deflater of a ZipOutputStream),
+ * while the stream it writes to stays open for the caller. Closing only flushes.
+ */
+class NonClosingOutputStream extends FilterOutputStream {
+
+    NonClosingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+}
@@ -1,6 +1,7 @@
 package com.antra.evaluation.reporting_system;
 
 import com.antra.evaluation.reporting_system.endpoint.ExcelGenerationController;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelFile;
 import com.antra.evaluation.reporting_system.service.ExcelService;
 import io.restassured.http.ContentType;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
@@ -12,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 
@@ -36,6 +38,27 @@ public class APITest {
                 .statusCode(200);
     }
 
+    @Test
+    public void testFileDownloadKeepsTheStoredFileName() throws FileNotFoundException {
+        ExcelFile file = new ExcelFile();
+        file.setFileName("123abcd.xlsx");
+        Mockito.when(excelService.getExcelFile("123abcd")).thenReturn(file);
+        Mockito.when(excelService.getExcelBodyById("123abcd")).thenReturn(new ByteArrayInputStream(new byte[0]));
+        given().get("/excel/123abcd/content").
+                then().assertThat()
+                .statusCode(200)
+                .header("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                .header("Content-Disposition", "attachment; filename=\"123abcd.xlsx\"");
+
+        file.setFileName("123abcd.zip");
+        Mockito.when(excelService.getExcelBodyById("123abcd")).thenReturn(new ByteArrayInputStream(new byte[0]));
+        given().get("/excel/123abcd/content").
+                then().assertThat()
+                .statusCode(200)
+                .header("Content-Type", "application/zip")
+                .header("Content-Disposition", "attachment; filename=\"123abcd.zip\"");
+    }
+
     @Test
     public void testListFiles() throws FileNotFoundException {
        // Mockito.when(excelService.getExcelBodyById(anyString())).thenReturn(new FileInputStream("temp.xlsx"));
@@ -0,0 +1,56 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.service.CellValueParser;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CellValueParserTest {
+
+    private final CellValueParser parser = new CellValueParser(100);
+
+    @Test
+    public void testNumbers() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            assertEquals(1234.5, parser.toNumber("1234.5"));
+            assertEquals(1234.5, parser.toNumber(" 1234.5 "));
+            assertEquals(-1000, parser.toNumber("-1e3"));
+            assertEquals(7, parser.toNumber(7));
+            assertNull(parser.toNumber("1.234,5"));
+            assertNull(parser.toNumber("NaN"));
+            assertNull(parser.toNumber("Infinity"));
+            assertNull(parser.toNumber("1e999"));
+            assertNull(parser.toNumber("-1e999"));
+            assertNull(parser.toNumber(Double.POSITIVE_INFINITY));
+            assertNull(parser.toNumber("12d"));
+            assertNull(parser.toNumber(""));
+            // served from the cache the second time
+            assertNull(parser.toNumber("NaN"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void testDates() {
+        assertEquals(excelDate(LocalDate.of(2020, 6, 1).atStartOfDay()), parser.toDate("2020-06-01"));
+        assertEquals(excelDate(LocalDateTime.of(2020, 6, 1, 8, 30)), parser.toDate("2020-06-01T08:30"));
+        assertEquals(excelDate(LocalDateTime.of(2020, 6, 1, 8, 30, 15)), parser.toDate("2020-06-01 08:30:15"), 1e-9);
+        assertEquals(excelDate(LocalDate.of(2020, 6, 1).atStartOfDay()), parser.toDate(LocalDate.of(2020, 6, 1)));
+        assertNull(parser.toDate("06/01/2020"));
+        assertNull(parser.toDate("1899-01-01"));
+    }
+
+    private static double excelDate(LocalDateTime dateTime) {
+        return DateUtil.getExcelDate(Timestamp.valueOf(dateTime));
+    }
+}
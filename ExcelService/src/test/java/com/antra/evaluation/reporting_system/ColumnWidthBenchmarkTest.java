@@ -0,0 +1,105 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataHeader;
+import com.antra.evaluation.reporting_system.service.ColumnWidthEstimator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of Sheet.autoSizeColumn with ColumnWidthEstimator on a sheet of 8 columns.
+ * Run with mvn test -Dtest=ColumnWidthBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnWidthBenchmarkTest {
+    private static final int COLUMNS = 8;
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private XSSFWorkbook workbook;
+    private XSSFSheet sheet;
+    private List<String[]> values;
+    private List<ExcelDataHeader> headers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workbook = new XSSFWorkbook();
+        sheet = workbook.createSheet();
+        headers = new ArrayList<>();
+        for (int j = 0; j < COLUMNS; j++) {
+            headers.add(new ExcelDataHeader("Column " + j));
+        }
+        values = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.createRow(i);
+            String[] rowValues = new String[COLUMNS];
+            for (int j = 0; j < COLUMNS; j++) {
+                rowValues[j] = "value " + i * (j + 1);
+                row.createCell(j).setCellValue(rowValues[j]);
+            }
+            values.add(rowValues);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public XSSFSheet autoSizeColumn() {
+        for (int j = 0; j < COLUMNS; j++) {
+            sheet.autoSizeColumn(j);
+        }
+        return sheet;
+    }
+
+    @Benchmark
+    public XSSFSheet estimator() {
+        ColumnWidthEstimator widths = new ColumnWidthEstimator(COLUMNS, 0);
+        for (int j = 0; j < COLUMNS; j++) {
+            widths.measureHeader(j, headers.get(j).getName());
+        }
+        for (String[] rowValues : values) {
+            for (int j = 0; j < COLUMNS; j++) {
+                widths.measure(j, rowValues[j]);
+            }
+        }
+        widths.apply(sheet, headers);
+        return sheet;
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        new Runner(new OptionsBuilder().include(ColumnWidthBenchmarkTest.class.getSimpleName()).build()).run();
+    }
+}
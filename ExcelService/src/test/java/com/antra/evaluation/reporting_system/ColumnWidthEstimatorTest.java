@@ -0,0 +1,49 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataHeader;
+import com.antra.evaluation.reporting_system.service.ColumnWidthEstimator;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnWidthEstimatorTest {
+
+    @Test
+    public void testWidthOfTheLongestCell() throws Exception {
+        ColumnWidthEstimator widths = new ColumnWidthEstimator(3, 0);
+        widths.measureHeader(0, "Id");
+        widths.measureHeader(1, "Name");
+        widths.measureHeader(2, "Note");
+        widths.measure(0, "1");
+        widths.measure(1, "a much longer name");
+        widths.measure(1, "short");
+        widths.measure(2, "two\nlines");
+        widths.measure(2, "学生");
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            ExcelDataHeader fixed = new ExcelDataHeader("Note");
+            fixed.setWidth(5000);
+            widths.apply(sheet, List.of(new ExcelDataHeader("Id"), new ExcelDataHeader("Name"), fixed));
+
+            // the header "Id" is wider than the value "1"
+            assertEquals(Math.round((2 * 1.6f + 2) * 256), sheet.getColumnWidth(0));
+            assertEquals((18 + 2) * 256, sheet.getColumnWidth(1));
+            assertEquals(5000, sheet.getColumnWidth(2));
+        }
+    }
+
+    @Test
+    public void testSampledRows() {
+        ColumnWidthEstimator widths = new ColumnWidthEstimator(1, 100);
+        assertTrue(widths.samples(99));
+        assertFalse(widths.samples(100));
+        assertTrue(new ColumnWidthEstimator(1, 0).samples(1_000_000));
+    }
+}
@@ -0,0 +1,90 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl.Engine;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl.StringStorage;
+import com.antra.evaluation.reporting_system.service.ExcelStyleTemplates;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the POI workbooks (in memory and streaming) with the native xlsx writer on a numeric-heavy report.
+ * The GC profiler reports the allocation per report as gc.alloc.rate.norm.
+ * Run with mvn test -Dtest=ExcelEngineBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExcelEngineBenchmarkTest {
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private ExcelData data;
+    private ExcelGenerationServiceImpl poiInMemory;
+    private ExcelGenerationServiceImpl poiStreaming;
+    private ExcelGenerationServiceImpl nativeWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = ExcelGenerationBenchmarkTest.numericData(rows, true);
+        poiInMemory = new ExcelGenerationServiceImpl(Integer.MAX_VALUE, 100, 0, StringStorage.INLINE, 1, Engine.POI, new ExcelStyleTemplates());
+        poiStreaming = new ExcelGenerationServiceImpl(0, 100, 0, StringStorage.INLINE, 1, Engine.POI, new ExcelStyleTemplates());
+        nativeWriter = new ExcelGenerationServiceImpl(0, 100, 0, StringStorage.INLINE, 1, Engine.NATIVE, new ExcelStyleTemplates());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        poiInMemory.shutdown();
+        poiStreaming.shutdown();
+        nativeWriter.shutdown();
+    }
+
+    @Benchmark
+    public void poiInMemory() throws IOException {
+        poiInMemory.writeExcelReport(data, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void poiStreaming() throws IOException {
+        poiStreaming.writeExcelReport(data, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void nativeWriter() throws IOException {
+        nativeWriter.writeExcelReport(data, OutputStream.nullOutputStream());
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ExcelEngineBenchmarkTest.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
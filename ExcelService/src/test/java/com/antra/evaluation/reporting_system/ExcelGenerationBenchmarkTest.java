@@ -0,0 +1,155 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataHeader;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataSheet;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataType;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl.Engine;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl.StringStorage;
+import com.antra.evaluation.reporting_system.service.ExcelStyleTemplates;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Peak heap and time of the in-memory and the streaming Excel generation at 10k, 100k and 1M rows.
+ * Run with mvn test -Dtest=ExcelGenerationBenchmarkTest -Dbenchmark=true, the heap limit of the forked JVM
+ * (e.g. -DargLine=-Xmx2g) decides where the in-memory workbook runs out of memory.
+ * Other row counts can be given as -Dbenchmark.rows=10000,50000.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ExcelGenerationBenchmarkTest {
+
+    @Test
+    public void rowCounts() {
+        for (String count : System.getProperty("benchmark.rows", "10000,100000,1000000").split(",")) {
+            int rows = Integer.parseInt(count.trim());
+            run("XSSF ", rows, new ExcelGenerationServiceImpl(Integer.MAX_VALUE, 100, 0, StringStorage.AUTO, 1, Engine.POI, new ExcelStyleTemplates()));
+            run("SXSSF", rows, new ExcelGenerationServiceImpl(0, 100, 0, StringStorage.AUTO, 1, Engine.POI, new ExcelStyleTemplates()));
+        }
+    }
+
+    /**
+     * Numeric-heavy report (an id, a name, a date and 8 amounts per row) written as text, as before, and as typed cells
+     * with shared or inline strings. Row count from -Dbenchmark.numeric-rows, 100000 by default.
+     */
+    @Test
+    public void numericReport() {
+        int rows = Integer.getInteger("benchmark.numeric-rows", 100_000);
+        ExcelData untyped = numericData(rows, false);
+        ExcelData typed = numericData(rows, true);
+        // warm up both code paths so the first engine does not pay for the JIT
+        for (ExcelData warmUp : List.of(numericData(10_000, false), numericData(10_000, true))) {
+            run("warm-up     ", 10_000, new ExcelGenerationServiceImpl(0, 100, 1000, StringStorage.AUTO, 1, Engine.POI, new ExcelStyleTemplates()), warmUp);
+        }
+        run("text        ", rows, new ExcelGenerationServiceImpl(0, 100, 1000, StringStorage.SHARED, 1, Engine.POI, new ExcelStyleTemplates()), untyped);
+        run("typed shared", rows, new ExcelGenerationServiceImpl(0, 100, 1000, StringStorage.SHARED, 1, Engine.POI, new ExcelStyleTemplates()), typed);
+        run("typed inline", rows, new ExcelGenerationServiceImpl(0, 100, 1000, StringStorage.INLINE, 1, Engine.POI, new ExcelStyleTemplates()), typed);
+    }
+
+    /**
+     * Multi-sheet report of 16 sheets rendered by the native writer on 1 to 16 threads, the speedup is capped by the cores of the machine.
+     * Rows per sheet from -Dbenchmark.sheet-rows, 20000 by default.
+     */
+    @Test
+    public void sheetScaling() {
+        int sheetRows = Integer.getInteger("benchmark.sheet-rows", 20_000);
+        ExcelData data = numericData(0, true);
+        List<ExcelDataSheet> sheets = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            ExcelDataSheet sheet = numericData(sheetRows, true).getSheets().get(0);
+            sheet.setTitle("Sales-" + i);
+            sheets.add(sheet);
+        }
+        data.setSheets(sheets);
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        run("warm-up   ", sheetRows * 16, new ExcelGenerationServiceImpl(0, 100, 1000, StringStorage.AUTO, 1, Engine.NATIVE, new ExcelStyleTemplates()), data);
+        for (int threads : new int[]{1, 2, 4, 8, 16}) {
+            ExcelGenerationServiceImpl service = new ExcelGenerationServiceImpl(0, 100, 1000, StringStorage.AUTO, threads, Engine.NATIVE, new ExcelStyleTemplates());
+            run(String.format("%2d threads", threads), sheetRows * 16, service, data);
+            service.shutdown();
+        }
+    }
+
+    static ExcelData numericData(int rows, boolean typed) {
+        List<ExcelDataHeader> headers = new ArrayList<>();
+        for (String name : List.of("Id", "Customer", "Date", "Qty", "Price", "Amount", "Tax", "Discount", "Net", "Cost", "Margin")) {
+            ExcelDataHeader header = new ExcelDataHeader(name);
+            if (typed && !name.equals("Customer")) {
+                header.setType(name.equals("Date") ? ExcelDataType.DATE : ExcelDataType.NUMBER);
+            }
+            headers.add(header);
+        }
+        Random random = new Random(42);
+        List<List<Object>> dataRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            List<Object> row = new ArrayList<>(headers.size());
+            row.add(String.valueOf(i));
+            row.add("Customer-" + random.nextInt(500));
+            row.add(LocalDate.of(2020, 1, 1).plusDays(random.nextInt(365)).toString());
+            for (int j = 0; j < 8; j++) {
+                row.add(String.valueOf(random.nextInt(10_000_000) / 100.0));
+            }
+            dataRows.add(row);
+        }
+        ExcelDataSheet sheet = new ExcelDataSheet();
+        sheet.setTitle("Sales");
+        sheet.setHeaders(headers);
+        sheet.setDataRows(dataRows);
+        ExcelData data = new ExcelData();
+        data.setTitle("Sales");
+        data.setSheets(List.of(sheet));
+        return data;
+    }
+
+    private void run(String engine, int rows, ExcelGenerationServiceImpl service) {
+        run(engine, rows, service, ExcelGenerationServiceTest.data(rows));
+    }
+
+    private void run(String engine, int rows, ExcelGenerationServiceImpl service, ExcelData data) {
+        System.gc();
+        long baseline = resetPeakHeap();
+        long start = System.nanoTime();
+        try {
+            File file = service.generateExcelReport(data);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("%s %,9d rows: %,7d ms, peak heap %,6d MB over the data, file %,6d KB%n",
+                    engine, rows, millis, (peakHeap() - baseline) >> 20, file.length() >> 10);
+            file.delete();
+        } catch (OutOfMemoryError e) {
+            System.out.printf("%s %,9d rows: out of memory after %,d ms%n", engine, rows, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long resetPeakHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,304 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataHeader;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataSheet;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataType;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl.Engine;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl.StringStorage;
+import com.antra.evaluation.reporting_system.service.ExcelStyleTemplates;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExcelGenerationServiceTest {
+
+    @Test
+    public void testStreamingAndInMemoryFilesAreTheSame() throws Exception {
+        ExcelData data = data(250);
+        // a threshold below the row count switches to the streaming workbook
+        File streamed = new ExcelGenerationServiceImpl(100, 10, 0, StringStorage.AUTO, 1, Engine.POI, new ExcelStyleTemplates()).generateExcelReport(data);
+        File inMemory = new ExcelGenerationServiceImpl(1000, 10, 0, StringStorage.AUTO, 1, Engine.POI, new ExcelStyleTemplates()).generateExcelReport(data);
+        try {
+            assertSheet(streamed, 250);
+            assertSheet(inMemory, 250);
+        } finally {
+            streamed.delete();
+            inMemory.delete();
+        }
+    }
+
+    @Test
+    public void testTypedCells() throws Exception {
+        for (Engine engine : List.of(Engine.POI, Engine.NATIVE)) {
+            for (StringStorage strings : StringStorage.values()) {
+                for (int threshold : new int[]{0, 1000}) {
+                    assertTypedCells(new ExcelGenerationServiceImpl(threshold, 10, 0, strings, 1, engine, new ExcelStyleTemplates()));
+                }
+            }
+        }
+    }
+
+    private void assertTypedCells(ExcelGenerationServiceImpl service) throws Exception {
+        ExcelData data = data(3);
+        ExcelDataSheet sheet = data.getSheets().get(0);
+        sheet.getHeaders().get(0).setType(ExcelDataType.NUMBER);
+        sheet.getHeaders().get(2).setType(ExcelDataType.DATE);
+        sheet.getHeaders().get(3).setType(ExcelDataType.NUMBER);
+        sheet.setDataRows(List.of(
+                List.of("1", "York", "2020-06-01", "90.5"),
+                List.of(2, "Dawei", "2020-06-01T08:30:00", "-1e3"),
+                List.of("3", "Tom", "next week", "n/a")));
+
+        File file = service.generateExcelReport(data);
+        try (Workbook workbook = new XSSFWorkbook(new FileInputStream(file))) {
+            Sheet result = workbook.getSheet("Students");
+            assertEquals(1, result.getRow(1).getCell(0).getNumericCellValue());
+            assertEquals(90.5, result.getRow(1).getCell(3).getNumericCellValue());
+            assertEquals(-1000, result.getRow(2).getCell(3).getNumericCellValue());
+            assertEquals(Timestamp.valueOf(LocalDateTime.of(2020, 6, 1, 0, 0)).getTime(), result.getRow(1).getCell(2).getDateCellValue().getTime());
+            assertEquals(Timestamp.valueOf(LocalDateTime.of(2020, 6, 1, 8, 30)).getTime(), result.getRow(2).getCell(2).getDateCellValue().getTime());
+            assertEquals("yyyy-mm-dd", result.getRow(1).getCell(2).getCellStyle().getDataFormatString());
+            // values that do not parse stay text
+            assertEquals(CellType.STRING, result.getRow(3).getCell(2).getCellType());
+            assertEquals("n/a", result.getRow(3).getCell(3).getStringCellValue());
+            assertEquals("York", result.getRow(1).getCell(1).getStringCellValue());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testShortRowFailsTheReportAndLeavesNoFile() throws Exception {
+        ExcelData data = data(300);
+        List<List<?>> rows = new ArrayList<>(data.getSheets().get(0).getDataRows());
+        rows.set(299, List.of(299, "Student-299", "Math"));
+        data.getSheets().get(0).setDataRows(rows);
+        File tempDir = new File(System.getProperty("java.io.tmpdir"));
+        // in-memory, streaming and native
+        for (ExcelGenerationServiceImpl service : List.of(new ExcelGenerationServiceImpl(1000, 10, 0, StringStorage.AUTO, 1, Engine.POI, new ExcelStyleTemplates()),
+                new ExcelGenerationServiceImpl(100, 10, 0, StringStorage.AUTO, 1, Engine.POI, new ExcelStyleTemplates()),
+                new ExcelGenerationServiceImpl(1000, 10, 0, StringStorage.AUTO, 1, Engine.NATIVE, new ExcelStyleTemplates()))) {
+            int tempFiles = tempFiles(tempDir);
+            RuntimeException error = assertThrows(RuntimeException.class, () -> service.generateExcelReport(data));
+            assertEquals("Excel Data Error: sheet data has difference length than header number", error.getMessage());
+            assertEquals(tempFiles, tempFiles(tempDir));
+        }
+    }
+
+    private int tempFiles(File dir) {
+        String[] names = dir.list((parent, name) -> name.startsWith("temp") && name.endsWith(".xlsx"));
+        return names == null ? 0 : names.length;
+    }
+
+    @Test
+    public void testParallelSheetsAreTheSameAsSerialOnes() throws Exception {
+        ExcelData data = data(0);
+        List<ExcelDataSheet> sheets = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            ExcelDataSheet sheet = data(500 + i * 100).getSheets().get(0);
+            sheet.setTitle("Class-" + i);
+            sheet.getHeaders().get(3).setType(ExcelDataType.NUMBER);
+            sheets.add(sheet);
+        }
+        data.setSheets(sheets);
+
+        File serial = new ExcelGenerationServiceImpl(100_000, 10, 0, StringStorage.AUTO, 1, Engine.NATIVE, new ExcelStyleTemplates()).generateExcelReport(data);
+        ExcelGenerationServiceImpl parallelService = new ExcelGenerationServiceImpl(100_000, 10, 0, StringStorage.AUTO, 4, Engine.NATIVE, new ExcelStyleTemplates());
+        File parallel = parallelService.generateExcelReport(data);
+        try {
+            Map<String, byte[]> serialEntries = entries(serial);
+            Map<String, byte[]> parallelEntries = entries(parallel);
+            assertEquals(serialEntries.keySet(), parallelEntries.keySet());
+            for (String name : serialEntries.keySet()) {
+                assertArrayEquals(serialEntries.get(name), parallelEntries.get(name), name);
+            }
+            try (Workbook workbook = new XSSFWorkbook(new FileInputStream(parallel))) {
+                assertEquals(12, workbook.getNumberOfSheets());
+                assertEquals("Class-11", workbook.getSheetName(11));
+                assertEquals(1600, workbook.getSheetAt(11).getLastRowNum());
+            }
+        } finally {
+            parallelService.shutdown();
+            serial.delete();
+            parallel.delete();
+        }
+    }
+
+    @Test
+    public void testAutoEngineKeepsPoiForThePoiSettings() throws Exception {
+        ExcelData twoSheets = data(0);
+        ExcelDataSheet first = data(10).getSheets().get(0);
+        ExcelDataSheet second = data(10).getSheets().get(0);
+        second.setTitle("Teachers");
+        twoSheets.setSheets(List.of(first, second));
+        // only POI writes the docProps parts
+        assertFalse(writtenByPoi(new ExcelGenerationServiceImpl(0, 10, 0, StringStorage.AUTO, 4, Engine.AUTO, new ExcelStyleTemplates()), data(10)));
+        assertFalse(writtenByPoi(new ExcelGenerationServiceImpl(0, 10, 0, StringStorage.AUTO, 1, Engine.AUTO, new ExcelStyleTemplates()), twoSheets));
+        assertFalse(writtenByPoi(new ExcelGenerationServiceImpl(0, 10, 0, StringStorage.AUTO, 4, Engine.AUTO, new ExcelStyleTemplates()), twoSheets));
+        assertTrue(writtenByPoi(new ExcelGenerationServiceImpl(0, 10, 0, StringStorage.SHARED, 1, Engine.AUTO, new ExcelStyleTemplates()), data(10)));
+    }
+
+    private boolean writtenByPoi(ExcelGenerationServiceImpl service, ExcelData data) throws Exception {
+        File file = service.generateExcelReport(data);
+        try {
+            return entries(file).containsKey("docProps/core.xml");
+        } finally {
+            service.shutdown();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testPoiKeepsTheStringStorageOfMultiSheetReports() throws Exception {
+        ExcelData twoSheets = data(0);
+        ExcelDataSheet first = data(10).getSheets().get(0);
+        ExcelDataSheet second = data(10).getSheets().get(0);
+        second.setTitle("Teachers");
+        twoSheets.setSheets(List.of(first, second));
+        for (int threshold : new int[]{0, 1000}) {
+            ExcelGenerationServiceImpl service = new ExcelGenerationServiceImpl(threshold, 10, 0, StringStorage.SHARED, 4, Engine.POI, new ExcelStyleTemplates());
+            File file = service.generateExcelReport(twoSheets);
+            try {
+                Map<String, byte[]> entries = entries(file);
+                assertTrue(new String(entries.get("xl/sharedStrings.xml")).contains("Student-0"));
+                assertFalse(new String(entries.get("xl/worksheets/sheet2.xml")).contains("inlineStr"));
+            } finally {
+                service.shutdown();
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testFailedSheetWaitsForTheSheetsBeingWritten() {
+        CountDownLatch othersStarted = new CountDownLatch(3);
+        List<AtomicInteger> reads = new ArrayList<>();
+        List<ExcelDataSheet> sheets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            boolean failing = i == 0;
+            ExcelDataSheet sheet = data(failing ? 10 : 20_000).getSheets().get(0);
+            sheet.setTitle("Class-" + i);
+            List<List<?>> rows = new ArrayList<>(sheet.getDataRows());
+            AtomicInteger read = new AtomicInteger();
+            reads.add(read);
+            sheet.setDataRows(new AbstractList<List<?>>() {
+                @Override
+                public List<?> get(int index) {
+                    read.incrementAndGet();
+                    if (failing && index == 5) {
+                        // the short row fails the sheet while the other sheets are in the middle of their rows
+                        awaitQuietly(othersStarted);
+                        return List.of(5);
+                    }
+                    if (!failing && index == 1000) {
+                        othersStarted.countDown();
+                    }
+                    return rows.get(index);
+                }
+
+                @Override
+                public int size() {
+                    return rows.size();
+                }
+            });
+            sheets.add(sheet);
+        }
+        ExcelData data = data(0);
+        data.setSheets(sheets);
+
+        ExcelGenerationServiceImpl service = new ExcelGenerationServiceImpl(100_000, 10, 0, StringStorage.AUTO, 4, Engine.NATIVE, new ExcelStyleTemplates());
+        File tempDir = new File(System.getProperty("java.io.tmpdir"));
+        int sheetParts = sheetParts(tempDir);
+        try {
+            RuntimeException error = assertThrows(RuntimeException.class, () -> service.generateExcelReport(data));
+            assertEquals("Excel Data Error: sheet data has difference length than header number", error.getMessage());
+            // the sheets already being written were finished, and their rendered parts deleted, before the report failed
+            // (the native writer reads the rows twice, once to measure the column widths and once to write them)
+            for (int i = 1; i < 4; i++) {
+                assertEquals(40_000, reads.get(i).get());
+            }
+            assertEquals(sheetParts, sheetParts(tempDir));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private int sheetParts(File dir) {
+        String[] names = dir.list((parent, name) -> name.startsWith("sheet") && name.endsWith(".xml"));
+        return names == null ? 0 : names.length;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, byte[]> entries(File file) throws Exception {
+        Map<String, byte[]> entries = new TreeMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new FileInputStream(file))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private void assertSheet(File file, int rows) throws Exception {
+        try (Workbook workbook = new XSSFWorkbook(new FileInputStream(file))) {
+            Sheet sheet = workbook.getSheet("Students");
+            assertEquals(rows, sheet.getLastRowNum());
+            assertEquals("Name", sheet.getRow(0).getCell(1).getStringCellValue());
+            assertEquals("Student-0", sheet.getRow(1).getCell(1).getStringCellValue());
+            assertEquals(String.valueOf(rows - 1), sheet.getRow(rows).getCell(0).getStringCellValue());
+        }
+    }
+
+    static ExcelData data(int rows) {
+        List<ExcelDataHeader> headers = new ArrayList<>();
+        for (String name : List.of("Id", "Name", "Class", "Score")) {
+            ExcelDataHeader header = new ExcelDataHeader();
+            header.setName(name);
+            headers.add(header);
+        }
+        List<List<Object>> dataRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            dataRows.add(List.of(i, "Student-" + i, "Math", 60 + i % 40));
+        }
+        ExcelDataSheet sheet = new ExcelDataSheet();
+        sheet.setTitle("Students");
+        sheet.setHeaders(headers);
+        sheet.setDataRows(dataRows);
+        ExcelData data = new ExcelData();
+        data.setTitle("Test book");
+        data.setSheets(List.of(sheet));
+        return data;
+    }
+}
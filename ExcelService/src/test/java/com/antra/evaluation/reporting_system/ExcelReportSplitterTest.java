@@ -0,0 +1,71 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataSheet;
+import com.antra.evaluation.reporting_system.service.ExcelReportSplitter;
+import com.antra.evaluation.reporting_system.service.NativeExcelGenerationService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExcelReportSplitterTest {
+
+    @Test
+    public void testSplitSheets() {
+        ExcelData data = ExcelGenerationServiceTest.data(5);
+        assertSame(data, ExcelReportSplitter.splitSheets(data, 5));
+        assertSame(data, ExcelReportSplitter.splitSheets(data, 0));
+
+        data.getSheets().get(0).setTitle("A title of exactly 31 character");
+        ExcelData split = ExcelReportSplitter.splitSheets(data, 2);
+        assertEquals(List.of("A title of exactly 31 character", "A title of exactly 31 chara (2)", "A title of exactly 31 chara (3)"),
+                split.getSheets().stream().map(ExcelDataSheet::getTitle).collect(Collectors.toList()));
+        assertEquals(List.of(2, 2, 1), split.getSheets().stream().map(sheet -> sheet.getDataRows().size()).collect(Collectors.toList()));
+        // the split sheets are views of the rows
+        assertSame(data.getSheets().get(0).getDataRows().get(4), split.getSheets().get(2).getDataRows().get(0));
+        assertSame(data.getSheets().get(0).getHeaders(), split.getSheets().get(2).getHeaders());
+    }
+
+    @Test
+    public void testSplitSheetTitlesStayUnique() {
+        ExcelData data = ExcelGenerationServiceTest.data(5);
+        ExcelDataSheet taken = ExcelGenerationServiceTest.data(1).getSheets().get(0);
+        taken.setTitle("STUDENTS (2)");
+        // both shortened to "A title of exactly 31 chara (2)"
+        ExcelDataSheet first = ExcelGenerationServiceTest.data(3).getSheets().get(0);
+        first.setTitle("A title of exactly 31 charact-1");
+        ExcelDataSheet second = ExcelGenerationServiceTest.data(3).getSheets().get(0);
+        second.setTitle("A title of exactly 31 charact-2");
+        data.setSheets(List.of(data.getSheets().get(0), taken, first, second));
+
+        ExcelData split = ExcelReportSplitter.splitSheets(data, 2);
+        assertEquals(List.of("Students", "Students (3)", "Students (4)", "STUDENTS (2)",
+                        "A title of exactly 31 charact-1", "A title of exactly 31 chara (2)",
+                        "A title of exactly 31 charact-2", "A title of exactly 31 chara (3)"),
+                split.getSheets().stream().map(ExcelDataSheet::getTitle).collect(Collectors.toList()));
+        assertTrue(NativeExcelGenerationService.supports(split));
+    }
+
+    @Test
+    public void testSplitFiles() {
+        ExcelData data = ExcelGenerationServiceTest.data(5);
+        ExcelDataSheet empty = ExcelGenerationServiceTest.data(0).getSheets().get(0);
+        empty.setTitle("Empty");
+        ExcelDataSheet second = ExcelGenerationServiceTest.data(3).getSheets().get(0);
+        second.setTitle("Second");
+        data.setSheets(List.of(data.getSheets().get(0), empty, second));
+        assertEquals(List.of(data), ExcelReportSplitter.splitFiles(data, 0));
+        assertEquals(List.of(data), ExcelReportSplitter.splitFiles(data, 8));
+
+        List<ExcelData> files = ExcelReportSplitter.splitFiles(data, 3);
+        assertEquals(List.of("Students:3", "Students:2 Empty:0 Second:1", "Second:2"),
+                files.stream().map(file -> file.getSheets().stream().map(sheet -> sheet.getTitle() + ":" + sheet.getDataRows().size())
+                        .collect(Collectors.joining(" "))).collect(Collectors.toList()));
+        assertEquals("Test book", files.get(2).getTitle());
+    }
+}
@@ -0,0 +1,136 @@
+package com.antra.evaluation.reporting_system;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.antra.evaluation.reporting_system.pojo.api.ExcelRequest;
+import com.antra.evaluation.reporting_system.pojo.api.MultiSheetExcelRequest;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataSheet;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelFile;
+import com.antra.evaluation.reporting_system.repo.ExcelRepository;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationService;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl.Engine;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl.StringStorage;
+import com.antra.evaluation.reporting_system.service.ExcelServiceImpl;
+import com.antra.evaluation.reporting_system.service.S3MultipartOutputStream;
+import com.antra.evaluation.reporting_system.service.ExcelStyleTemplates;
+import com.antra.evaluation.reporting_system.service.S3StreamingUploader;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.exceptions.base.MockitoException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ExcelServiceTest {
+
+    private final ExcelGenerationService generationService = mock(ExcelGenerationService.class);
+    private final S3StreamingUploader uploader = mock(S3StreamingUploader.class);
+    private final ExcelServiceImpl excelService = new ExcelServiceImpl(mock(ExcelRepository.class), generationService, mock(AmazonS3.class), uploader, 0, 0, 1);
+
+    @BeforeAll
+    public static void clearMockitoState() {
+        // an earlier test class of the fork may have left an unfinished stubbing, which would fail the mocks created below
+        try {
+            Mockito.validateMockitoUsage();
+        } catch (MockitoException e) {
+            // reported by that class already, validateMockitoUsage clears it
+        }
+    }
+
+    @Test
+    public void testSheetsShareTheRequestRows() throws Exception {
+        when(uploader.upload(anyString(), anyString(), any())).thenAnswer(call -> {
+            ((S3StreamingUploader.ContentWriter) call.getArgument(2)).write(OutputStream.nullOutputStream());
+            return mock(S3MultipartOutputStream.class);
+        });
+        List<List<String>> data = new ArrayList<>(List.of(
+                List.of("1", "York", "Math"),
+                List.of("2", "Dawei", "Art"),
+                List.of("3", "Tom", "Math"),
+                List.of("4", "Ann", "Art"),
+                List.of("5", "Bob", "Bio")));
+        MultiSheetExcelRequest request = new MultiSheetExcelRequest();
+        request.setHeaders(List.of("Id", "Name", "Class"));
+        request.setSplitBy("Class");
+        request.setData(data);
+
+        excelService.generateFile(request, true);
+
+        ArgumentCaptor<ExcelData> excelData = ArgumentCaptor.forClass(ExcelData.class);
+        verify(generationService).writeExcelReport(excelData.capture(), any());
+        List<ExcelDataSheet> sheets = excelData.getValue().getSheets();
+        assertEquals(List.of("Art", "Bio", "Math"), List.of(sheets.get(0).getTitle(), sheets.get(1).getTitle(), sheets.get(2).getTitle()));
+        assertEquals(List.of(data.get(1), data.get(3)), sheets.get(0).getDataRows());
+        assertEquals(List.of(data.get(4)), sheets.get(1).getDataRows());
+        assertEquals(List.of(data.get(0), data.get(2)), sheets.get(2).getDataRows());
+        // the rows are the request rows, not copies
+        assertSame(data.get(2), sheets.get(2).getDataRows().get(1));
+    }
+
+    @Test
+    public void testLargeReportIsSplitIntoZippedWorkbooks() throws Exception {
+        ExcelGenerationServiceImpl generator = spy(new ExcelGenerationServiceImpl(1000, 10, 0, StringStorage.AUTO, 1, Engine.AUTO, new ExcelStyleTemplates()));
+        // 3 rows per sheet and 4 rows per workbook
+        ExcelServiceImpl splitting = new ExcelServiceImpl(mock(ExcelRepository.class), generator, mock(AmazonS3.class), uploader, 3, 4, 2);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        when(uploader.upload(anyString(), anyString(), any())).thenAnswer(call -> {
+            ((S3StreamingUploader.ContentWriter) call.getArgument(2)).write(content);
+            return mock(S3MultipartOutputStream.class);
+        });
+        List<List<String>> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            data.add(List.of(String.valueOf(i), "Student-" + i));
+        }
+        ExcelRequest request = new ExcelRequest();
+        request.setHeaders(List.of("Id", "Name"));
+        request.setData(data);
+
+        ExcelFile file = splitting.generateFile(request, false);
+
+        verify(uploader).upload(eq(file.getFileId()), eq("application/zip"), any());
+        assertEquals(file.getFileId() + ".zip", file.getFileName());
+        assertEquals(List.of(file.getFileId() + "-1.xlsx", file.getFileId() + "-2.xlsx", file.getFileId() + "-3.xlsx"), file.getFileParts());
+        // sheet title and data rows of every sheet of every workbook
+        List<String> sheets = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(content.toByteArray()))) {
+            int part = 0;
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                assertEquals(file.getFileParts().get(part++), entry.getName());
+                try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(zip.readAllBytes()))) {
+                    for (Sheet sheet : workbook) {
+                        sheets.add(sheet.getSheetName() + ":" + sheet.getRow(1).getCell(0).getStringCellValue() + "-"
+                                + sheet.getRow(sheet.getLastRowNum()).getCell(0).getStringCellValue());
+                    }
+                }
+            }
+        }
+        assertEquals(List.of("sheet-1:0-2", "sheet-1 (2):3-3",
+                "sheet-1 (2):4-5", "sheet-1 (3):6-7",
+                "sheet-1 (3):8-8", "sheet-1 (4):9-9"), sheets);
+        // the workbooks go from memory into the zip, none is written to a temp file
+        verify(generator, never()).generateExcelReport(any());
+        splitting.shutdown();
+        generator.shutdown();
+    }
+}
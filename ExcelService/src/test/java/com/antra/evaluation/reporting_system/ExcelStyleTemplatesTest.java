@@ -0,0 +1,127 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataType;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl.Engine;
+import com.antra.evaluation.reporting_system.service.ExcelGenerationServiceImpl.StringStorage;
+import com.antra.evaluation.reporting_system.service.ExcelStyleTemplate;
+import com.antra.evaluation.reporting_system.service.ExcelStyleTemplates;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExcelStyleTemplatesTest {
+
+    private final ExcelStyleTemplates templates = new ExcelStyleTemplates();
+
+    @Test
+    public void testTemplatesOfBothEngines() throws Exception {
+        templates.register(new ExcelStyleTemplate("report", "Times New Roman", (short) 12, false, IndexedColors.LIGHT_YELLOW.getIndex(), true,
+                "dd/mm/yyyy", "dd/mm/yyyy hh:mm"));
+        for (Engine engine : List.of(Engine.POI, Engine.NATIVE)) {
+            ExcelGenerationServiceImpl service = new ExcelGenerationServiceImpl(1000, 10, 0, StringStorage.AUTO, 1, engine, templates);
+
+            ExcelData data = data("plain");
+            File file = service.generateExcelReport(data);
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new FileInputStream(file))) {
+                XSSFSheet sheet = workbook.getSheetAt(0);
+                CellStyle header = sheet.getRow(0).getCell(0).getCellStyle();
+                XSSFFont font = workbook.getFontAt(header.getFontIndexAsInt());
+                assertEquals("Calibri", font.getFontName());
+                assertEquals(11, font.getFontHeightInPoints());
+                assertTrue(font.getBold());
+                assertEquals(FillPatternType.NO_FILL, header.getFillPattern());
+                assertFalse(sheet.getRow(1).getCell(1).getCellStyle().getWrapText());
+                assertEquals("yyyy-mm-dd", sheet.getRow(1).getCell(2).getCellStyle().getDataFormatString());
+            } finally {
+                file.delete();
+            }
+
+            file = service.generateExcelReport(data("report"));
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new FileInputStream(file))) {
+                XSSFSheet sheet = workbook.getSheetAt(0);
+                CellStyle header = sheet.getRow(0).getCell(0).getCellStyle();
+                XSSFFont font = workbook.getFontAt(header.getFontIndexAsInt());
+                assertEquals("Times New Roman", font.getFontName());
+                assertEquals(12, font.getFontHeightInPoints());
+                assertFalse(font.getBold());
+                assertEquals(FillPatternType.SOLID_FOREGROUND, header.getFillPattern());
+                assertEquals(IndexedColors.LIGHT_YELLOW.getIndex(), header.getFillForegroundColor());
+                assertTrue(sheet.getRow(1).getCell(1).getCellStyle().getWrapText());
+                assertEquals("dd/mm/yyyy", sheet.getRow(1).getCell(2).getCellStyle().getDataFormatString());
+                // numbers do not take the wrapping text style
+                CellStyle number = sheet.getRow(1).getCell(3).getCellStyle();
+                assertEquals(CellType.NUMERIC, sheet.getRow(1).getCell(3).getCellType());
+                assertFalse(number.getWrapText());
+                assertEquals(HorizontalAlignment.RIGHT, number.getAlignment());
+            } finally {
+                file.delete();
+            }
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testPoiWorkbookCreatesTheStylesOnce() throws Exception {
+        ExcelData data = data(ExcelStyleTemplates.DEFAULT);
+        ExcelData other = data(ExcelStyleTemplates.DEFAULT);
+        other.getSheets().get(0).setTitle("Teachers");
+        data.setSheets(List.of(data.getSheets().get(0), other.getSheets().get(0)));
+        ExcelGenerationServiceImpl service = new ExcelGenerationServiceImpl(1000, 10, 0, StringStorage.AUTO, 1, Engine.POI, templates);
+        File file = service.generateExcelReport(data);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new FileInputStream(file))) {
+            // the default style and font, then the template styles and header font shared by both sheets
+            assertEquals(6, workbook.getNumCellStyles());
+            assertEquals(2, workbook.getNumberOfFonts());
+        } finally {
+            file.delete();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testDefaultAndUnknownTemplates() {
+        assertSame(templates.get(ExcelStyleTemplates.DEFAULT), templates.get(null));
+        assertSame(templates.get(ExcelStyleTemplates.DEFAULT), templates.get(""));
+        assertThrows(IllegalArgumentException.class, () -> templates.get("missing"));
+
+        ExcelGenerationServiceImpl service = new ExcelGenerationServiceImpl(1000, 10, 0, StringStorage.AUTO, 1, Engine.AUTO, templates);
+        assertThrows(IllegalArgumentException.class, () -> service.generateExcelReport(data("missing")));
+    }
+
+    @Test
+    public void testHeaderFontScaleIsRelativeToTheBodyFont() {
+        assertEquals(1f, templates.get("plain").getHeaderFontScale());
+        assertEquals(16 / 11f, templates.get(ExcelStyleTemplates.DEFAULT).getHeaderFontScale());
+    }
+
+    private ExcelData data(String template) {
+        ExcelData data = ExcelGenerationServiceTest.data(2);
+        data.setTemplate(template);
+        data.getSheets().get(0).getHeaders().get(2).setType(ExcelDataType.DATE);
+        data.getSheets().get(0).getHeaders().get(3).setType(ExcelDataType.NUMBER);
+        List<List<?>> rows = new ArrayList<>();
+        rows.add(List.of("1", "Dawei", "2020-05-01", "90"));
+        rows.add(List.of("2", "Ying", "2020-05-02", "80"));
+        data.getSheets().get(0).setDataRows(rows);
+        return data;
+    }
+}
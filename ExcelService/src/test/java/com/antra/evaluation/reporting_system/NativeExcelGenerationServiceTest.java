@@ -0,0 +1,126 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.report.ExcelData;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataHeader;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataSheet;
+import com.antra.evaluation.reporting_system.pojo.report.ExcelDataType;
+import com.antra.evaluation.reporting_system.service.ExcelStyleTemplates;
+import com.antra.evaluation.reporting_system.service.NativeExcelGenerationService;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NativeExcelGenerationServiceTest {
+
+    private final NativeExcelGenerationService service = new NativeExcelGenerationService(0, new ExcelStyleTemplates());
+
+    @Test
+    public void testWorkbookLooksLikeThePoiOne() throws Exception {
+        ExcelData data = ExcelGenerationServiceTest.data(30);
+        ExcelDataSheet sheet = data.getSheets().get(0);
+        sheet.getHeaders().get(2).setWidth(5000);
+        List<List<?>> rows = new ArrayList<>(sheet.getDataRows());
+        rows.set(0, List.of("0", "  York & <Dawei> \"quoted\"\u0001", "Math", "90"));
+        sheet.setDataRows(rows);
+        ExcelDataSheet second = ExcelGenerationServiceTest.data(2).getSheets().get(0);
+        second.setTitle("Second & last");
+        data.setSheets(List.of(sheet, second));
+
+        File file = service.generateExcelReport(data);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new FileInputStream(file))) {
+            assertEquals(2, workbook.getNumberOfSheets());
+            assertEquals("Second & last", workbook.getSheetName(1));
+            Sheet result = workbook.getSheet("Students");
+            assertEquals(30, result.getLastRowNum());
+            assertEquals("  York & <Dawei> \"quoted\"", result.getRow(1).getCell(1).getStringCellValue());
+            assertEquals("29", result.getRow(30).getCell(0).getStringCellValue());
+            assertEquals(5000, result.getColumnWidth(2));
+
+            CellStyle header = result.getRow(0).getCell(0).getCellStyle();
+            XSSFFont font = workbook.getFontAt(header.getFontIndexAsInt());
+            assertEquals("Arial", font.getFontName());
+            assertEquals(16, font.getFontHeightInPoints());
+            assertTrue(font.getBold());
+            assertEquals(FillPatternType.SOLID_FOREGROUND, header.getFillPattern());
+            assertEquals(IndexedColors.GREY_40_PERCENT.getIndex(), header.getFillForegroundColor());
+            assertTrue(result.getRow(1).getCell(1).getCellStyle().getWrapText());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testNumbersOutOfRangeStayText() throws Exception {
+        ExcelData data = ExcelGenerationServiceTest.data(2);
+        ExcelDataSheet sheet = data.getSheets().get(0);
+        sheet.getHeaders().get(3).setType(ExcelDataType.NUMBER);
+        sheet.setDataRows(List.of(List.of("0", "York", "Math", "1e999"), List.of("1", "Dawei", "Math", Double.NaN)));
+
+        File file = service.generateExcelReport(data);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new FileInputStream(file))) {
+            Sheet result = workbook.getSheet("Students");
+            assertEquals("1e999", result.getRow(1).getCell(3).getStringCellValue());
+            assertEquals("NaN", result.getRow(2).getCell(3).getStringCellValue());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testStreamStaysOpen() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        service.writeExcelReport(ExcelGenerationServiceTest.data(3), out);
+        assertFalse(closed.get());
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(3, workbook.getSheet("Students").getLastRowNum());
+        }
+    }
+
+    @Test
+    public void testSupports() {
+        ExcelData data = ExcelGenerationServiceTest.data(1);
+        assertTrue(NativeExcelGenerationService.supports(data));
+        data.getSheets().get(0).setTitle("a/b");
+        assertFalse(NativeExcelGenerationService.supports(data));
+        data.getSheets().get(0).setTitle("a name longer than thirty-one chars");
+        assertFalse(NativeExcelGenerationService.supports(data));
+
+        ExcelDataSheet first = ExcelGenerationServiceTest.data(1).getSheets().get(0);
+        ExcelDataSheet second = ExcelGenerationServiceTest.data(1).getSheets().get(0);
+        second.setTitle("STUDENTS");
+        data.setSheets(List.of(first, second));
+        assertFalse(NativeExcelGenerationService.supports(data));
+
+        // past column XFD
+        ExcelData wide = ExcelGenerationServiceTest.data(1);
+        ExcelDataHeader header = new ExcelDataHeader();
+        header.setName("Column");
+        wide.getSheets().get(0).setHeaders(new ArrayList<>(Collections.nCopies(16_384, header)));
+        assertTrue(NativeExcelGenerationService.supports(wide));
+        wide.getSheets().get(0).getHeaders().add(header);
+        assertFalse(NativeExcelGenerationService.supports(wide));
+    }
+}
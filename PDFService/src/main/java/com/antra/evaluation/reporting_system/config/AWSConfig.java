@@ -1,6 +1,12 @@
 package com.antra.evaluation.reporting_system.config;
 
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.sqs.AmazonSQSAsync;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.aws.messaging.config.QueueMessageHandlerFactory;
 import org.springframework.cloud.aws.messaging.core.QueueMessagingTemplate;
 import org.springframework.context.annotation.Bean;
@@ -19,6 +25,19 @@ public class AWSConfig {
         return new QueueMessagingTemplate(amazonSQSAsync);
     }
 
+    /**
+     * Talk to an S3 compatible stand-in (e.g. MinIO or LocalStack) instead of AWS when app.s3.endpoint is set
+     */
+    @Bean
+    @ConditionalOnProperty("app.s3.endpoint")
+    public AmazonS3 amazonS3(@Value("${app.s3.endpoint}") String endpoint, @Value("${app.s3.region:us-east-1}") String region) {
+        return AmazonS3ClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region))
+                .withPathStyleAccessEnabled(true)
+                .withCredentials(DefaultAWSCredentialsProviderChain.getInstance())
+                .build();
+    }
+
     @Bean
     public QueueMessageHandlerFactory queueMessageHandlerFactory() {
         QueueMessageHandlerFactory factory = new QueueMessageHandlerFactory();
@@ -5,6 +5,7 @@ import com.antra.evaluation.reporting_system.pojo.api.PDFResponse;
 import com.antra.evaluation.reporting_system.pojo.api.PDFSNSRequest;
 import com.antra.evaluation.reporting_system.pojo.report.PDFFile;
 import com.antra.evaluation.reporting_system.service.PDFService;
+import com.antra.evaluation.reporting_system.service.ReportDataLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.aws.messaging.core.QueueMessagingTemplate;
@@ -20,9 +21,12 @@ public class PDFRequestQueueListener {
 
     private final PDFService pdfService;
 
-    public PDFRequestQueueListener(QueueMessagingTemplate queueMessagingTemplate, PDFService pdfService) {
+    private final ReportDataLoader reportDataLoader;
+
+    public PDFRequestQueueListener(QueueMessagingTemplate queueMessagingTemplate, PDFService pdfService, ReportDataLoader reportDataLoader) {
         this.queueMessagingTemplate = queueMessagingTemplate;
         this.pdfService = pdfService;
+        this.reportDataLoader = reportDataLoader;
     }
 
    // @SqsListener("PDF_Request_Queue")
@@ -33,6 +37,10 @@ public class PDFRequestQueueListener {
         response.setReqId(request.getReqId());
 
         try {
+            if (request.getDataLocation() != null) {
+                // large reports only carry a pointer to their rows, load them right before generating the file
+                request.setData(reportDataLoader.load(request.getDataLocation()));
+            }
             file = pdfService.createPDF(request);
             response.setFileId(file.getId());
             response.setFileLocation(file.getFileLocation());
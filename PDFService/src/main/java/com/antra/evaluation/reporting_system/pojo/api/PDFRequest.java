@@ -8,6 +8,9 @@ public class PDFRequest {
     private String description;
     private List<List<String>> data;
     private String submitter;
+    private String dataLocation;
+    /** Optional name of the report template, see JasperTemplateRegistry */
+    private String template;
 
     public String getReqId() {
         return reqId;
@@ -49,12 +52,30 @@ public class PDFRequest {
         this.data = data;
     }
 
+    public String getDataLocation() {
+        return dataLocation;
+    }
+
+    public void setDataLocation(String dataLocation) {
+        this.dataLocation = dataLocation;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+
     @Override
     public String toString() {
         return "PDFRequest{" +
                 "headers=" + headers +
                 ", description='" + description + '\'' +
                 ", data=" + data +
+                ", dataLocation='" + dataLocation + '\'' +
+                ", template='" + template + '\'' +
                 ", submitter='" + submitter + '\'' +
                 '}';
     }
@@ -11,6 +11,7 @@ public class PDFFile {
     private String fileLocation;
     private String submitter;
     private Long fileSize;
+    private String checksum;
     private String description;
     private LocalDateTime generatedTime;
 
@@ -54,6 +55,14 @@ public class PDFFile {
         this.fileSize = fileSize;
     }
 
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -78,6 +87,7 @@ public class PDFFile {
                 ", fileLocation='" + fileLocation + '\'' +
                 ", submitter='" + submitter + '\'' +
                 ", fileSize=" + fileSize +
+                ", checksum='" + checksum + '\'' +
                 ", description='" + description + '\'' +
                 ", generatedTime=" + generatedTime +
                 '}';
@@ -0,0 +1,99 @@
+package com.antra.evaluation.reporting_system.service;
+
+import com.antra.evaluation.reporting_system.pojo.api.PDFRequest;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.ColumnText;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfPageEventHelper;
+import com.lowagie.text.pdf.PdfWriter;
+
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * DirectPDFGenerator writes the table of a request with iText, without the fill and export of Jasper.
+ * The layout is the one of the "table" template (see {@link TableReportDesign}): landscape A4, the description as title,
+ * the headers repeated at the top of every page, one row per line that grows with long values, and the page number at the bottom.
+ * The table is incomplete until the last row, every {@link #FLUSH_ROWS} rows the finished pages are written to the stream
+ * and their rows dropped, so the memory does not grow with the report.
+ */
+public class DirectPDFGenerator {
+    /** Rows added to the table between two writes, about 3 pages */
+    static final int FLUSH_ROWS = 100;
+
+    private static final float MARGIN = 20;
+    private static final float FOOTER_HEIGHT = 16;
+    private static final float PADDING = 2;
+
+    private final Font titleFont = new Font(Font.HELVETICA, 16, Font.BOLD);
+    private final Font headerFont = new Font(Font.HELVETICA, 9, Font.BOLD);
+    private final Font cellFont = new Font(Font.HELVETICA, 9);
+
+    /**
+     * Whether the request is a plain table that needs none of the Jasper templates.
+     * A table wider than app.pdf.table.max-columns is not, the registry rejects it.
+     */
+    public static boolean supports(PDFRequest request, JasperTemplateRegistry templates) {
+        return templates.isTable(request.getTemplate()) && request.getHeaders() != null && !request.getHeaders().isEmpty()
+                && request.getHeaders().size() <= templates.getMaxTableColumns();
+    }
+
+    /**
+     * Write the PDF of the request to the stream, the stream is not closed
+     * @param request report data, a row shorter than the headers gets blank cells
+     * @param out stream receiving the PDF content
+     */
+    public void generate(PDFRequest request, OutputStream out) throws DocumentException {
+        Document document = new Document(PageSize.A4.rotate(), MARGIN, MARGIN, MARGIN, MARGIN + FOOTER_HEIGHT);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        writer.setCloseStream(false);
+        writer.setPageEvent(new PageFooter());
+        document.open();
+        if (request.getDescription() != null) {
+            Paragraph title = new Paragraph(request.getDescription(), titleFont);
+            title.setSpacingAfter(6);
+            document.add(title);
+        }
+
+        List<String> headers = request.getHeaders();
+        PdfPTable table = new PdfPTable(headers.size());
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+        PdfPCell cell = table.getDefaultCell();
+        cell.setPadding(PADDING);
+        cell.setBorder(Rectangle.BOTTOM);
+        for (String header : headers) {
+            table.addCell(new Phrase(header, headerFont));
+        }
+        cell.setBorder(Rectangle.NO_BORDER);
+        int count = 0;
+        for (List<String> row : request.getData()) {
+            for (int i = 0; i < headers.size(); i++) {
+                table.addCell(new Phrase(i < row.size() && row.get(i) != null ? row.get(i) : "", cellFont));
+            }
+            if (++count % FLUSH_ROWS == 0) {
+                document.add(table);
+            }
+        }
+        table.setComplete(true);
+        document.add(table);
+        document.close();
+    }
+
+    private class PageFooter extends PdfPageEventHelper {
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            ColumnText.showTextAligned(writer.getDirectContent(), Element.ALIGN_LEFT,
+                    new Phrase("Page " + writer.getPageNumber(), cellFont), document.left() + PADDING, document.bottom() - FOOTER_HEIGHT + 4, 0);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.antra.evaluation.reporting_system.service;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JasperTemplateRegistry keeps the compiled reports in memory, so a fill does not read and deserialize the .jasper file again.
+ * The templates are configured as name=location pairs in app.pdf.templates (Spring resource locations, classpath: works from
+ * the fat jar as well) and loaded once at startup. A JasperReport is only read by the fills, one instance serves concurrent requests.
+ * With app.pdf.template.reload-interval above 0 (ms), a template whose resource changed is loaded again when it is used
+ * after the interval, which is handy while designing a report.
+ * A request without template uses app.pdf.template.default, coffee unless configured. The built-in "table" template
+ * renders the request rows in a detail band, see {@link TableReportDesign}.
+ * It is compiled once per number of columns, up to app.pdf.table.max-columns columns, so the client cannot grow the cache without bound.
+ */
+@Component
+public class JasperTemplateRegistry {
+    private static final Logger log = LoggerFactory.getLogger(JasperTemplateRegistry.class);
+
+    /** Name of the built-in template filled with a {@link RowDataSource} */
+    public static final String TABLE = "table";
+
+    private final Map<String, Resource> resources = new ConcurrentHashMap<>();
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+    private final Map<Integer, JasperReport> tables = new ConcurrentHashMap<>();
+    private final String defaultTemplate;
+    private final long reloadInterval;
+    private final int maxTableColumns;
+
+    public JasperTemplateRegistry(ResourceLoader resourceLoader,
+                                  @Value("${app.pdf.templates:coffee=classpath:Coffee_Landscape.jasper}") String[] locations,
+                                  @Value("${app.pdf.template.default:coffee}") String defaultTemplate,
+                                  @Value("${app.pdf.template.reload-interval:0}") long reloadInterval,
+                                  @Value("${app.pdf.table.max-columns:50}") int maxTableColumns) {
+        this.defaultTemplate = defaultTemplate;
+        this.reloadInterval = reloadInterval;
+        this.maxTableColumns = maxTableColumns;
+        for (String location : locations) {
+            int separator = location.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("app.pdf.templates entries are name=location, got " + location);
+            }
+            String name = location.substring(0, separator).trim();
+            resources.put(name, resourceLoader.getResource(location.substring(separator + 1).trim()));
+            templates.put(name, load(name));
+        }
+        if (!TABLE.equals(defaultTemplate) && !templates.containsKey(defaultTemplate)) {
+            throw new IllegalArgumentException("The default PDF template " + defaultTemplate + " is not in app.pdf.templates");
+        }
+    }
+
+    /**
+     * @param name template name, null or empty for the default template
+     * @return whether the template is the built-in table, filled with the request rows
+     */
+    public boolean isTable(String name) {
+        return TABLE.equals(name == null || name.isEmpty() ? defaultTemplate : name);
+    }
+
+    /**
+     * @return the most columns a table may have, a wider one is rejected
+     */
+    public int getMaxTableColumns() {
+        return maxTableColumns;
+    }
+
+    /**
+     * @param columns number of columns of the table
+     * @return the compiled table report, shared by all the callers
+     * @throws IllegalArgumentException if there are more than app.pdf.table.max-columns columns
+     */
+    public JasperReport table(int columns) {
+        if (columns > maxTableColumns) {
+            throw new IllegalArgumentException("A PDF table has at most " + maxTableColumns + " columns, got " + columns);
+        }
+        return tables.computeIfAbsent(columns, n -> {
+            try {
+                return TableReportDesign.compile(n);
+            } catch (JRException e) {
+                throw new IllegalStateException("Cannot compile the table report of " + n + " columns", e);
+            }
+        });
+    }
+
+    /**
+     * @param name name of a configured template, null or empty for the default template
+     * @return the compiled report, shared by all the callers
+     */
+    public JasperReport get(String name) {
+        String key = name == null || name.isEmpty() ? defaultTemplate : name;
+        Template template = templates.get(key);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown PDF template " + name);
+        }
+        if (reloadInterval > 0 && System.currentTimeMillis() - template.checkedAt > reloadInterval) {
+            template = templates.compute(key, (k, current) -> reloadIfModified(k, current));
+        }
+        return template.report;
+    }
+
+    private Template reloadIfModified(String name, Template current) {
+        if (System.currentTimeMillis() - current.checkedAt <= reloadInterval) {
+            return current; // checked by another thread meanwhile
+        }
+        try {
+            if (resources.get(name).lastModified() == current.lastModified) {
+                current.checkedAt = System.currentTimeMillis();
+                return current;
+            }
+            log.info("Reloading the modified PDF template {}", name);
+            return load(name);
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            // keep serving the loaded report, e.g. while the file is being replaced
+            log.warn("Cannot reload the PDF template {}", name, e);
+            current.checkedAt = System.currentTimeMillis();
+            return current;
+        }
+    }
+
+    private Template load(String name) {
+        Resource resource = resources.get(name);
+        try (InputStream in = resource.getInputStream()) {
+            long lastModified = reloadInterval > 0 ? resource.lastModified() : 0;
+            return new Template((JasperReport) JRLoader.loadObject(in), lastModified);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the PDF template " + name + " from " + resource, e);
+        } catch (JRException | ClassCastException e) {
+            throw new IllegalStateException("The PDF template " + name + " is not a compiled report: " + resource, e);
+        }
+    }
+
+    private static class Template {
+        final JasperReport report;
+        final long lastModified;
+        volatile long checkedAt = System.currentTimeMillis();
+
+        Template(JasperReport report, long lastModified) {
+            this.report = report;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -2,29 +2,246 @@ package com.antra.evaluation.reporting_system.service;
 
 import com.antra.evaluation.reporting_system.pojo.api.PDFRequest;
 import com.antra.evaluation.reporting_system.pojo.exception.PDFGenerationException;
-import com.antra.evaluation.reporting_system.pojo.report.PDFFile;
+import com.lowagie.text.DocumentException;
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperExportManager;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JRVirtualizer;
 import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.util.ResourceUtils;
 
-import java.io.File;
-import java.io.IOException;
+import javax.annotation.PreDestroy;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Component
 public class PDFGenerator {
     private static final Logger log = LoggerFactory.getLogger(PDFGenerator.class);
 
-    public PDFFile generate(PDFRequest request) {
+    private final JasperTemplateRegistry templates;
+
+    private final int virtualizerRowThreshold;
+
+    private final int virtualizerMaxPages;
+
+    private final String swapDirectory;
+
+    private final int chunkRows;
+
+    private final ExecutorService chunkExecutor;
+
+    private final Engine engine;
+
+    private final DirectPDFGenerator directGenerator = new DirectPDFGenerator();
+
+    /**
+     * Library writing the PDF. AUTO writes the requests of the table template directly with iText, see {@link DirectPDFGenerator},
+     * as long as they are small enough to be filled in one go without a virtualizer, and fills the Jasper templates for the others.
+     * So a table over app.pdf.virtualizer.row-threshold or app.pdf.parallel.chunk-rows rows is still filled by Jasper with those settings.
+     * JASPER fills the table template whatever its size.
+     */
+    public enum Engine { JASPER, AUTO }
+
+    public PDFGenerator(JasperTemplateRegistry templates,
+                        @Value("${app.pdf.virtualizer.row-threshold:20000}") int virtualizerRowThreshold,
+                        @Value("${app.pdf.virtualizer.max-pages:100}") int virtualizerMaxPages,
+                        @Value("${app.pdf.virtualizer.swap-dir:${java.io.tmpdir}}") String swapDirectory,
+                        @Value("${app.pdf.parallel.chunk-rows:10000}") int chunkRows,
+                        @Value("${app.pdf.parallel.workers:0}") int workers,
+                        @Value("${app.pdf.engine:auto}") Engine engine) {
+        this.templates = templates;
+        this.engine = engine;
+        this.virtualizerRowThreshold = virtualizerRowThreshold;
+        this.virtualizerMaxPages = virtualizerMaxPages;
+        this.swapDirectory = swapDirectory;
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        // a single worker fills the chunks one after the other, no faster than the whole report at once
+        this.chunkRows = threads > 1 ? chunkRows : 0;
+        this.chunkExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "pdf-chunk");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Fill the report of the request and write it as PDF to the stream, the stream is not closed
+     * Unless app.pdf.engine is jasper, a request of the table template is written directly, without Jasper,
+     * when it is under the row thresholds below.
+     * Otherwise the compiled report is the template named by the request, loaded once by {@link JasperTemplateRegistry}.
+     * The table template reads the rows through a {@link RowDataSource}, the other templates get them as one content_str text.
+     * A table of more than app.pdf.parallel.chunk-rows rows is split in chunks of whole pages filled concurrently by
+     * app.pdf.parallel.workers threads (0 = one per core), the chunks are exported one after the other in the same PDF
+     * with their page numbers following each other. A chunk starts on a new page, so the last page of a chunk is only
+     * short when long values wrap.
+     * A request with more than app.pdf.virtualizer.row-threshold rows is filled and exported with a swap file virtualizer:
+     * only the last app.pdf.virtualizer.max-pages pages stay in memory (split between the chunks), the others go to
+     * a swap file in app.pdf.virtualizer.swap-dir that is deleted once the PDF is written.
+     * @param request report data
+     * @param out stream receiving the PDF content
+     */
+    public void generate(PDFRequest request, OutputStream out) {
+        if (useDirect(request)) {
+            try {
+                directGenerator.generate(request, out);
+                log.info("Generated PDF file of {}", request.getSubmitter());
+            } catch (DocumentException e) {
+                log.error("Error in generating PDF file",e);
+                throw new PDFGenerationException();
+            }
+            return;
+        }
+        boolean virtualize = virtualizerRowThreshold > 0 && request.getData().size() > virtualizerRowThreshold;
+        if (virtualize) {
+            log.info("Filling the {} rows of the PDF of {} with a swap file virtualizer", request.getData().size(), request.getSubmitter());
+        }
+        List<JRSwapFileVirtualizer> virtualizers = new ArrayList<>();
+        try {
+            List<JasperPrint> prints;
+            if (templates.isTable(request.getTemplate())) {
+                prints = fillTable(request, virtualize, virtualizers);
+            } else {
+                prints = List.of(fillText(request, virtualize ? virtualizer(virtualizerMaxPages, virtualizers) : null));
+            }
+            if (prints.size() > 1) {
+                renumberPages(prints);
+            }
+            // the pages are not changed anymore, the export reads them back without writing them again
+            virtualizers.forEach(virtualizer -> virtualizer.setReadOnly(true));
+            JRPdfExporter exporter = new JRPdfExporter();
+            exporter.setExporterInput(SimpleExporterInput.getInstance(prints));
+            exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+            exporter.exportReport();
+            log.info("Generated PDF file of {}", request.getSubmitter());
+        } catch (JRException e) {
+            log.error("Error in generating PDF file",e);
+            throw new PDFGenerationException();
+        } finally {
+            virtualizers.forEach(JRSwapFileVirtualizer::cleanup);
+        }
+    }
+
+    private boolean useDirect(PDFRequest request) {
+        if (engine != Engine.AUTO || !DirectPDFGenerator.supports(request, templates)) {
+            return false;
+        }
+        int rows = request.getData().size();
+        return (virtualizerRowThreshold <= 0 || rows <= virtualizerRowThreshold) && (chunkRows <= 0 || rows <= chunkRows);
+    }
+
+    private JRSwapFileVirtualizer virtualizer(int maxPages, List<JRSwapFileVirtualizer> virtualizers) {
+        // 4KB blocks, grown by 100 blocks (400KB) at a time
+        JRSwapFileVirtualizer virtualizer = new JRSwapFileVirtualizer(maxPages, new JRSwapFile(swapDirectory, 4096, 100), true);
+        virtualizers.add(virtualizer);
+        return virtualizer;
+    }
+
+    private List<JasperPrint> fillTable(PDFRequest request, boolean virtualize, List<JRSwapFileVirtualizer> virtualizers) throws JRException {
+        List<List<String>> rows = request.getData();
+        JasperReport report = templates.table(request.getHeaders().size());
+        if (chunkRows <= 0 || rows.size() <= chunkRows) {
+            return List.of(fillTable(report, request, rows, false, virtualize ? virtualizer(virtualizerMaxPages, virtualizers) : null));
+        }
+
+        int pageRows = TableReportDesign.rowsPerPage(false);
+        int chunkPages = Math.max(1, chunkRows / pageRows);
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        for (int to = TableReportDesign.rowsPerPage(true) + (chunkPages - 1) * pageRows; to < rows.size(); to += chunkPages * pageRows) {
+            bounds.add(to);
+        }
+        bounds.add(rows.size());
+        int chunks = bounds.size() - 1;
+        log.info("Filling the {} rows of the PDF of {} in {} chunks", rows.size(), request.getSubmitter(), chunks);
+
+        List<CompletableFuture<JasperPrint>> fills = new ArrayList<>();
+        for (int i = 0; i < chunks; i++) {
+            List<List<String>> chunk = rows.subList(bounds.get(i), bounds.get(i + 1));
+            boolean continued = i > 0;
+            JRVirtualizer virtualizer = virtualize ? virtualizer(Math.max(1, virtualizerMaxPages / chunks), virtualizers) : null;
+            fills.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return fillTable(report, request, chunk, continued, virtualizer);
+                } catch (JRException e) {
+                    throw new CompletionException(e);
+                }
+            }, chunkExecutor));
+        }
+        // wait for every chunk, the swap files are removed once the fills are over
+        List<JasperPrint> prints = new ArrayList<>();
+        JRException failure = null;
+        for (CompletableFuture<JasperPrint> fill : fills) {
+            try {
+                prints.add(fill.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof JRException ? (JRException) e.getCause() : new JRException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return prints;
+    }
+
+    private JasperPrint fillTable(JasperReport report, PDFRequest request, List<List<String>> rows, boolean continued,
+                                  JRVirtualizer virtualizer) throws JRException {
+        List<String> headers = request.getHeaders();
+        Map<String, Object> parameters = new HashMap<>();
+        if (virtualizer != null) {
+            parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+        }
+        parameters.put(TableReportDesign.DESCRIPTION, request.getDescription());
+        parameters.put(TableReportDesign.CONTINUED, continued);
+        for (int i = 0; i < headers.size(); i++) {
+            parameters.put(TableReportDesign.HEADER_PREFIX + i, headers.get(i));
+        }
+        return JasperFillManager.fillReport(report, parameters, new RowDataSource(rows));
+    }
+
+    /**
+     * Every chunk counts its pages from 1, the footers get the page number in the whole PDF
+     */
+    private static void renumberPages(List<JasperPrint> prints) {
+        int pageNumber = 0;
+        for (JasperPrint print : prints) {
+            for (JRPrintPage page : print.getPages()) {
+                pageNumber++;
+                for (JRPrintElement element : page.getElements()) {
+                    if (TableReportDesign.PAGE_NUMBER_KEY.equals(element.getKey())) {
+                        ((JRPrintText) element).setText("Page " + pageNumber);
+                    }
+                }
+            }
+        }
+    }
+
+    private JasperPrint fillText(PDFRequest request, JRVirtualizer virtualizer) throws JRException {
         Map<String, Object> parameters = new HashMap<>();
+        if (virtualizer != null) {
+            parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+        }
 
         parameters.put("desc_str", request.getDescription());
         StringBuilder data = new StringBuilder();
@@ -37,20 +254,11 @@ public class PDFGenerator {
         List<Object> itemList = List.of("Empty");
         JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(itemList);
 
-        try {
-            File jaspFile = ResourceUtils.getFile("classpath:Coffee_Landscape.jasper");
-            JasperPrint jprint = JasperFillManager.fillReport(jaspFile.getAbsolutePath(), parameters, dataSource);
-            File temp = File.createTempFile(request.getSubmitter(),"_tmp.pdf");
-            JasperExportManager.exportReportToPdfFile(jprint, temp.getAbsolutePath());
-            PDFFile generatedFile = new PDFFile();
-            generatedFile.setFileLocation(temp.getAbsolutePath());
-            generatedFile.setFileName(temp.getName());
-            generatedFile.setFileSize(temp.length());
-            log.info("Generated PDF file: {}", generatedFile);
-            return generatedFile;
-        } catch (IOException | JRException e) {
-            log.error("Error in generating PDF file",e);
-            throw new PDFGenerationException();
-        }
+        return JasperFillManager.fillReport(templates.get(request.getTemplate()), parameters, dataSource);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        chunkExecutor.shutdown();
     }
 }
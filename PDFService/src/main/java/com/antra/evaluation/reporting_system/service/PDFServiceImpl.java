@@ -1,7 +1,7 @@
 package com.antra.evaluation.reporting_system.service;
 
-import com.amazonaws.services.s3.AmazonS3;
 import com.antra.evaluation.reporting_system.pojo.api.PDFRequest;
+import com.antra.evaluation.reporting_system.pojo.exception.PDFGenerationException;
 import com.antra.evaluation.reporting_system.pojo.report.PDFFile;
 import com.antra.evaluation.reporting_system.repo.PDFRepository;
 import org.slf4j.Logger;
@@ -9,7 +9,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -22,15 +22,15 @@ public class PDFServiceImpl implements PDFService {
 
     private final PDFGenerator generator;
 
-    private final AmazonS3 s3Client;
+    private final S3StreamingUploader s3Uploader;
 
     @Value("${s3.bucket}")
     private String s3Bucket;
 
-    public PDFServiceImpl(PDFRepository repository, PDFGenerator generator, AmazonS3 s3Client) {
+    public PDFServiceImpl(PDFRepository repository, PDFGenerator generator, S3StreamingUploader s3Uploader) {
         this.repository = repository;
         this.generator = generator;
-        this.s3Client = s3Client;
+        this.s3Uploader = s3Uploader;
     }
 
     @Override
@@ -41,23 +41,21 @@ public class PDFServiceImpl implements PDFService {
         file.setDescription(request.getDescription());
         file.setGeneratedTime(LocalDateTime.now());
 
-        PDFFile generatedFile= generator.generate(request);
-
-        File temp = new File(generatedFile.getFileLocation());
-        log.debug("Upload temp file to s3 {}", generatedFile.getFileLocation());
-        s3Client.putObject(s3Bucket,file.getId(),temp);
+        S3MultipartOutputStream upload;
+        try {
+            upload = s3Uploader.upload(file.getId(), "application/pdf", out -> generator.generate(request, out));
+        } catch (IOException e) {
+            log.error("Error in uploading PDF file {}", file.getId(), e);
+            throw new PDFGenerationException();
+        }
         log.debug("Uploaded");
 
         file.setFileLocation(String.join("/",s3Bucket,file.getId()));
-        file.setFileSize(generatedFile.getFileSize());
-        file.setFileName(generatedFile.getFileName());
+        file.setFileSize(upload.getSize());
+        file.setChecksum(upload.getChecksum());
+        file.setFileName(file.getId() + ".pdf");
         repository.save(file);
 
-        log.debug("clear tem file {}", file.getFileLocation());
-        if(temp.delete()){
-            log.debug("cleared");
-        }
-
         return file;
     }
 
@@ -0,0 +1,32 @@
+package com.antra.evaluation.reporting_system.service;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRField;
+
+import java.util.List;
+
+/**
+ * RowDataSource feeds the rows of a request to the detail band of a {@link TableReportDesign} report one at a time.
+ * Field cN is the value of the N-th column of the current row, a missing value is null. The rows are read, not copied.
+ */
+public class RowDataSource implements JRDataSource {
+    private final List<? extends List<String>> rows;
+    private int index = -1;
+
+    public RowDataSource(List<? extends List<String>> rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public boolean next() {
+        return ++index < rows.size();
+    }
+
+    @Override
+    public Object getFieldValue(JRField field) {
+        String name = field.getName();
+        int column = Integer.parseInt(name, 1, name.length(), 10);
+        List<String> row = rows.get(index);
+        return column < row.size() ? row.get(column) : null;
+    }
+}
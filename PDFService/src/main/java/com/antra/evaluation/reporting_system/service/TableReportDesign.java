@@ -0,0 +1,144 @@
+package com.antra.evaluation.reporting_system.service;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.design.JRDesignBand;
+import net.sf.jasperreports.engine.design.JRDesignExpression;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.design.JRDesignParameter;
+import net.sf.jasperreports.engine.design.JRDesignSection;
+import net.sf.jasperreports.engine.design.JRDesignTextField;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.type.OrientationEnum;
+import net.sf.jasperreports.engine.type.TextAdjustEnum;
+import net.sf.jasperreports.engine.type.WhenNoDataTypeEnum;
+
+/**
+ * TableReportDesign builds the landscape A4 table report of the "table" template for a number of columns:
+ * the description as title, the headers repeated at the top of every page, one detail band per row
+ * (fields c0, c1... of a {@link RowDataSource}) that grows with long values, and the page number in the page footer.
+ * Parameters: desc_str for the title and header_0, header_1... for the column headers.
+ * A report split in row chunks fills the chunks after the first one with continued=true, which leaves out the title,
+ * and renumbers the page footers (key page_number) once all the chunks are filled.
+ */
+final class TableReportDesign {
+    static final String DESCRIPTION = "desc_str";
+    static final String HEADER_PREFIX = "header_";
+    static final String FIELD_PREFIX = "c";
+    static final String CONTINUED = "continued";
+    static final String PAGE_NUMBER_KEY = "page_number";
+
+    private static final int PAGE_WIDTH = 842;
+    private static final int PAGE_HEIGHT = 595;
+    private static final int MARGIN = 20;
+    private static final int ROW_HEIGHT = 16;
+    private static final int TITLE_HEIGHT = 30;
+    private static final int HEADER_HEIGHT = ROW_HEIGHT + 4;
+
+    private TableReportDesign() {
+    }
+
+    /**
+     * Compile the table report, the compiled report can be shared by concurrent fills
+     */
+    static JasperReport compile(int columns) throws JRException {
+        return JasperCompileManager.compileReport(design(columns));
+    }
+
+    /**
+     * @param title whether the page starts with the title
+     * @return number of rows fitting in a page when no value wraps
+     */
+    static int rowsPerPage(boolean title) {
+        int height = PAGE_HEIGHT - 2 * MARGIN - ROW_HEIGHT - HEADER_HEIGHT - (title ? TITLE_HEIGHT : 0);
+        return height / ROW_HEIGHT;
+    }
+
+    static JasperDesign design(int columns) {
+        JasperDesign design = new JasperDesign();
+        design.setName("table_" + columns);
+        design.setOrientation(OrientationEnum.LANDSCAPE);
+        design.setPageWidth(PAGE_WIDTH);
+        design.setPageHeight(PAGE_HEIGHT);
+        design.setLeftMargin(MARGIN);
+        design.setRightMargin(MARGIN);
+        design.setTopMargin(MARGIN);
+        design.setBottomMargin(MARGIN);
+        int width = PAGE_WIDTH - 2 * MARGIN;
+        design.setColumnWidth(width);
+        design.setWhenNoDataType(WhenNoDataTypeEnum.ALL_SECTIONS_NO_DETAIL);
+        // plain text in one font, the simple measurer skips the AWT text layout of every cell
+        design.setProperty("net.sf.jasperreports.measure.simple.text", "true");
+        try {
+            design.addParameter(parameter(DESCRIPTION));
+            JRDesignParameter continued = new JRDesignParameter();
+            continued.setName(CONTINUED);
+            continued.setValueClass(Boolean.class);
+            continued.setDefaultValueExpression(new JRDesignExpression("Boolean.FALSE"));
+            design.addParameter(continued);
+            for (int i = 0; i < columns; i++) {
+                design.addParameter(parameter(HEADER_PREFIX + i));
+                JRDesignField field = new JRDesignField();
+                field.setName(FIELD_PREFIX + i);
+                field.setValueClass(String.class);
+                design.addField(field);
+            }
+        } catch (JRException e) {
+            throw new IllegalStateException(e); // only thrown for duplicated names
+        }
+
+        JRDesignBand title = new JRDesignBand();
+        title.setHeight(TITLE_HEIGHT);
+        title.setPrintWhenExpression(new JRDesignExpression("Boolean.valueOf(!$P{" + CONTINUED + "})"));
+        JRDesignTextField description = text("$P{" + DESCRIPTION + "}", 0, width, 24);
+        description.setFontSize(16f);
+        description.setBold(true);
+        title.addElement(description);
+        design.setTitle(title);
+
+        JRDesignBand header = new JRDesignBand();
+        header.setHeight(HEADER_HEIGHT);
+        JRDesignBand detail = new JRDesignBand();
+        detail.setHeight(ROW_HEIGHT);
+        int columnWidth = width / Math.max(1, columns);
+        for (int i = 0; i < columns; i++) {
+            JRDesignTextField name = text("$P{" + HEADER_PREFIX + i + "}", i * columnWidth, columnWidth, ROW_HEIGHT);
+            name.setBold(true);
+            name.getLineBox().getBottomPen().setLineWidth(1f);
+            header.addElement(name);
+            detail.addElement(text("$F{" + FIELD_PREFIX + i + "}", i * columnWidth, columnWidth, ROW_HEIGHT));
+        }
+        design.setColumnHeader(header);
+        ((JRDesignSection) design.getDetailSection()).addBand(detail);
+
+        JRDesignBand footer = new JRDesignBand();
+        footer.setHeight(ROW_HEIGHT);
+        JRDesignTextField pageNumber = text("\"Page \" + $V{PAGE_NUMBER}", 0, width, ROW_HEIGHT);
+        pageNumber.setKey(PAGE_NUMBER_KEY);
+        footer.addElement(pageNumber);
+        design.setPageFooter(footer);
+        return design;
+    }
+
+    private static JRDesignParameter parameter(String name) {
+        JRDesignParameter parameter = new JRDesignParameter();
+        parameter.setName(name);
+        parameter.setValueClass(String.class);
+        return parameter;
+    }
+
+    private static JRDesignTextField text(String expression, int x, int width, int height) {
+        JRDesignTextField text = new JRDesignTextField();
+        text.setX(x);
+        text.setWidth(width);
+        text.setHeight(height);
+        text.setExpression(new JRDesignExpression(expression));
+        text.setBlankWhenNull(true);
+        text.setTextAdjust(TextAdjustEnum.STRETCH_HEIGHT);
+        text.setFontSize(9f);
+        text.getLineBox().setLeftPadding(2);
+        text.getLineBox().setRightPadding(2);
+        return text;
+    }
+}
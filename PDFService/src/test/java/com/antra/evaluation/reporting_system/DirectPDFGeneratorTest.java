@@ -0,0 +1,93 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.api.PDFRequest;
+import com.antra.evaluation.reporting_system.service.DirectPDFGenerator;
+import com.antra.evaluation.reporting_system.service.JasperTemplateRegistry;
+import com.antra.evaluation.reporting_system.service.PDFGenerator;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DirectPDFGeneratorTest {
+
+    private final JasperTemplateRegistry registry = new JasperTemplateRegistry(new DefaultResourceLoader(),
+            new String[]{"coffee=classpath:Coffee_Landscape.jasper"}, JasperTemplateRegistry.TABLE, 0, 50);
+
+    @Test
+    public void testRowsAreWrittenPageByPage() throws Exception {
+        PDFRequest request = JasperTemplateRegistryTest.request("Students");
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(List.of(String.valueOf(i), "Student-" + i, String.valueOf(60 + i % 40)));
+        }
+        // a missing value is blank
+        rows.set(5, List.of("5"));
+        request.setData(rows);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PDFGenerator(registry, 0, 100, null, 0, 1, PDFGenerator.Engine.AUTO).generate(request, out);
+
+        PdfReader reader = new PdfReader(out.toByteArray());
+        PdfTextExtractor extractor = new PdfTextExtractor(reader);
+        assertTrue(reader.getNumberOfPages() > 20);
+        List<String> lines = new ArrayList<>();
+        for (int p = 1; p <= reader.getNumberOfPages(); p++) {
+            List<String> page = List.of(extractor.getTextFromPage(p).split("\n"));
+            int header = page.indexOf("Id Name Score");
+            assertEquals(p == 1 ? "Students" : "Id Name Score", page.get(0));
+            assertEquals("Page " + p, page.get(page.size() - 1));
+            lines.addAll(page.subList(header + 1, page.size() - 1));
+        }
+        assertEquals(rows.size(), lines.size());
+        assertEquals("5", lines.get(5));
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(String.join(" ", rows.get(i)), lines.get(i));
+        }
+    }
+
+    @Test
+    public void testLargeTablesAreLeftToJasper() throws Exception {
+        PDFRequest request = JasperTemplateRegistryTest.request("Students");
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rows.add(List.of(String.valueOf(i), "Student-" + i, String.valueOf(60 + i % 40)));
+        }
+        request.setData(rows);
+        String swapDir = System.getProperty("java.io.tmpdir");
+
+        assertEquals(List.of(false, true, true, false), List.of(
+                writtenByJasper(new PDFGenerator(registry, 1000, 100, swapDir, 0, 1, PDFGenerator.Engine.AUTO), request),
+                // the virtualizer and the chunks of a larger table keep filling it with Jasper
+                writtenByJasper(new PDFGenerator(registry, 100, 100, swapDir, 0, 1, PDFGenerator.Engine.AUTO), request),
+                writtenByJasper(new PDFGenerator(registry, 1000, 100, swapDir, 100, 2, PDFGenerator.Engine.AUTO), request),
+                // a single worker never fills chunks
+                writtenByJasper(new PDFGenerator(registry, 1000, 100, swapDir, 100, 1, PDFGenerator.Engine.AUTO), request)));
+    }
+
+    private static boolean writtenByJasper(PDFGenerator generator, PDFRequest request) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.generate(request, out);
+        generator.shutdown();
+        Object creator = new PdfReader(out.toByteArray()).getInfo().get("Creator");
+        return creator != null && creator.toString().startsWith("JasperReports");
+    }
+
+    @Test
+    public void testJasperTemplatesAreNotWrittenDirectly() {
+        PDFRequest request = JasperTemplateRegistryTest.request("Students");
+        assertTrue(DirectPDFGenerator.supports(request, registry));
+        request.setTemplate("coffee");
+        assertFalse(DirectPDFGenerator.supports(request, registry));
+        request.setTemplate(JasperTemplateRegistry.TABLE);
+        request.setHeaders(List.of());
+        assertFalse(DirectPDFGenerator.supports(request, registry));
+    }
+}
@@ -0,0 +1,87 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.service.JasperTemplateRegistry;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ResourceUtils;
+
+import java.io.FileNotFoundException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of a fill that loads the compiled report from the .jasper file, as PDFGenerator used to do,
+ * with a fill of the report cached by JasperTemplateRegistry.
+ * Run with mvn test -Dtest=JasperTemplateBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JasperTemplateBenchmarkTest {
+
+    private String path;
+    private JasperTemplateRegistry registry;
+
+    @Setup(Level.Trial)
+    public void setUp() throws FileNotFoundException {
+        JasperTemplateRegistryTest.ignoreMissingFonts();
+        // no logback configuration in the tests, the default DEBUG level of the fill logs would be measured too
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.INFO);
+        path = ResourceUtils.getFile("classpath:Coffee_Landscape.jasper").getAbsolutePath();
+        registry = new JasperTemplateRegistry(new DefaultResourceLoader(), new String[]{"coffee=classpath:Coffee_Landscape.jasper"}, "coffee", 0, 50);
+    }
+
+    private static Map<String, Object> parameters() {
+        // the fill adds the data source to the map
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("desc_str", "Benchmark");
+        parameters.put("content_str", "Id,Name\r\n1,York\r\n");
+        return parameters;
+    }
+
+    @Benchmark
+    public JasperPrint fillFromFile() throws JRException {
+        return JasperFillManager.fillReport(path, parameters(), new JREmptyDataSource());
+    }
+
+    @Benchmark
+    public JasperPrint fillFromRegistry() throws JRException {
+        return JasperFillManager.fillReport(registry.get(null), parameters(), new JREmptyDataSource());
+    }
+
+    @Benchmark
+    public JasperReport loadFromFile() throws JRException {
+        return (JasperReport) JRLoader.loadObjectFromFile(path);
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        new Runner(new OptionsBuilder().include(JasperTemplateBenchmarkTest.class.getSimpleName()).build()).run();
+    }
+}
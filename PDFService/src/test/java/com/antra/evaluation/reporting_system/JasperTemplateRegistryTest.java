@@ -0,0 +1,114 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.api.PDFRequest;
+import com.antra.evaluation.reporting_system.service.JasperTemplateRegistry;
+import com.antra.evaluation.reporting_system.service.PDFGenerator;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JasperTemplateRegistryTest {
+
+    @BeforeAll
+    public static void ignoreMissingFonts() {
+        // the report uses Times New Roman, which a build machine may not have
+        DefaultJasperReportsContext.getInstance().setProperty("net.sf.jasperreports.awt.ignore.missing.font", "true");
+    }
+
+    @Test
+    public void testTemplatesAreLoadedOnce() {
+        JasperTemplateRegistry registry = new JasperTemplateRegistry(new DefaultResourceLoader(),
+                new String[]{"coffee=classpath:Coffee_Landscape.jasper", "other = classpath:Coffee_Landscape.jasper"}, "coffee", 0, 50);
+        JasperReport report = registry.get(null);
+        assertSame(report, registry.get("coffee"));
+        assertSame(report, registry.get(""));
+        assertNotSame(report, registry.get("other"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get("missing"));
+        assertThrows(IllegalArgumentException.class, () -> new JasperTemplateRegistry(new DefaultResourceLoader(),
+                new String[]{"coffee=classpath:Coffee_Landscape.jasper"}, "missing", 0, 50));
+    }
+
+    @Test
+    public void testTableColumnsAreCapped() {
+        JasperTemplateRegistry registry = new JasperTemplateRegistry(new DefaultResourceLoader(),
+                new String[]{"coffee=classpath:Coffee_Landscape.jasper"}, JasperTemplateRegistry.TABLE, 0, 3);
+        assertSame(registry.table(3), registry.table(3));
+        assertThrows(IllegalArgumentException.class, () -> registry.table(4));
+
+        PDFRequest request = request("Too wide");
+        request.setTemplate(JasperTemplateRegistry.TABLE);
+        request.setHeaders(List.of("Id", "Name", "Score", "Class"));
+        PDFGenerator generator = new PDFGenerator(registry, 0, 100, null, 0, 1, PDFGenerator.Engine.AUTO);
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(request, new ByteArrayOutputStream()));
+        generator.shutdown();
+    }
+
+    @Test
+    public void testModifiedTemplateIsReloaded(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("report.jasper");
+        try (InputStream in = getClass().getResourceAsStream("/Coffee_Landscape.jasper")) {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        JasperTemplateRegistry registry = new JasperTemplateRegistry(new DefaultResourceLoader(),
+                new String[]{"report=" + file.toUri()}, "report", 1, 50);
+        JasperReport report = registry.get("report");
+        Thread.sleep(5);
+        assertSame(report, registry.get("report"));
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10_000));
+        Thread.sleep(5);
+        JasperReport reloaded = registry.get("report");
+        assertNotSame(report, reloaded);
+        assertEquals(report.getName(), reloaded.getName());
+    }
+
+    @Test
+    public void testConcurrentFillsShareTheTemplate() {
+        PDFGenerator generator = new PDFGenerator(new JasperTemplateRegistry(new DefaultResourceLoader(),
+                new String[]{"coffee=classpath:Coffee_Landscape.jasper"}, "coffee", 0, 50), 20000, 100, System.getProperty("java.io.tmpdir"), 0, 1, PDFGenerator.Engine.JASPER);
+        List<CompletableFuture<byte[]>> pdfs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            PDFRequest request = request("Report " + i);
+            pdfs.add(CompletableFuture.supplyAsync(() -> {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                generator.generate(request, out);
+                return out.toByteArray();
+            }));
+        }
+        for (CompletableFuture<byte[]> pdf : pdfs) {
+            assertTrue(new String(pdf.join(), 0, 5).startsWith("%PDF"));
+        }
+    }
+
+    static PDFRequest request(String description) {
+        PDFRequest request = new PDFRequest();
+        request.setDescription(description);
+        request.setSubmitter("Dawei");
+        request.setHeaders(List.of("Id", "Name", "Score"));
+        List<List<String>> data = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            data.add(List.of(String.valueOf(i), "Student-" + i, String.valueOf(60 + i)));
+        }
+        request.setData(data);
+        return request;
+    }
+}
@@ -0,0 +1,95 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.api.PDFRequest;
+import com.antra.evaluation.reporting_system.service.JasperTemplateRegistry;
+import com.antra.evaluation.reporting_system.service.PDFGenerator;
+import com.antra.evaluation.reporting_system.service.PDFGenerator.Engine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the table report filled and exported by Jasper with the one written directly with iText.
+ * The GC profiler reports the allocation per report as gc.alloc.rate.norm, the size of both PDFs is printed at setup.
+ * Run with mvn test -Dtest=PDFEngineBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PDFEngineBenchmarkTest {
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private PDFRequest request;
+    private PDFGenerator jasper;
+    private PDFGenerator direct;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JasperTemplateRegistryTest.ignoreMissingFonts();
+        // no logback configuration in the tests, the default DEBUG level of the fill logs would be measured too
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.INFO);
+        JasperTemplateRegistry registry = new JasperTemplateRegistry(new DefaultResourceLoader(),
+                new String[]{"coffee=classpath:Coffee_Landscape.jasper"}, JasperTemplateRegistry.TABLE, 0, 50);
+        request = PDFGenerationBenchmarkTest.request(rows, JasperTemplateRegistry.TABLE);
+        jasper = new PDFGenerator(registry, 0, 0, null, 0, 1, Engine.JASPER);
+        direct = new PDFGenerator(registry, 0, 0, null, 0, 1, Engine.AUTO);
+        System.out.printf("%n%,d rows: jasper PDF %,d KB, direct PDF %,d KB%n", rows, size(jasper) >> 10, size(direct) >> 10);
+    }
+
+    private int size(PDFGenerator generator) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.generate(request, out);
+        return out.size();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jasper.shutdown();
+        direct.shutdown();
+    }
+
+    @Benchmark
+    public void jasper() {
+        jasper.generate(request, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void direct() {
+        direct.generate(request, OutputStream.nullOutputStream());
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(PDFEngineBenchmarkTest.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
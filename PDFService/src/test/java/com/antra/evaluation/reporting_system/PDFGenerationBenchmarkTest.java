@@ -0,0 +1,143 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.api.PDFRequest;
+import com.antra.evaluation.reporting_system.service.JasperTemplateRegistry;
+import com.antra.evaluation.reporting_system.service.PDFGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Peak heap and time of the PDF of 1k, 50k and 500k rows, with the rows joined into the content_str text of the coffee
+ * template, with the rows of the table template and with the table written directly. The text runs stop at -Dbenchmark.text-max-rows (50000 by default).
+ * Run with mvn test -Dtest=PDFGenerationBenchmarkTest -Dbenchmark=true, other row counts as -Dbenchmark.rows=1000,5000
+ * swapFile compares the table of -Dbenchmark.swap-rows (340000 by default, about 10000 pages) filled in memory and with
+ * the swap file virtualizer keeping 100 pages.
+ * workers fills the table of -Dbenchmark.parallel-rows (64000 by default, about 2000 pages) in chunks of 4000 rows
+ * on 1 (no chunks), 2, 4, 8 and 16 workers.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class PDFGenerationBenchmarkTest {
+
+    private final JasperTemplateRegistry registry = new JasperTemplateRegistry(new DefaultResourceLoader(),
+            new String[]{"coffee=classpath:Coffee_Landscape.jasper"}, JasperTemplateRegistry.TABLE, 0, 50);
+
+    @BeforeAll
+    public static void setUp() {
+        JasperTemplateRegistryTest.ignoreMissingFonts();
+        // no logback configuration in the tests, the default DEBUG level of the fill logs would be measured too
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.INFO);
+    }
+
+    @Test
+    public void rowCounts() {
+        PDFGenerator generator = new PDFGenerator(registry, 0, 0, null, 0, 1, PDFGenerator.Engine.JASPER);
+        PDFGenerator direct = new PDFGenerator(registry, 0, 0, null, 0, 1, PDFGenerator.Engine.AUTO);
+        int textMaxRows = Integer.getInteger("benchmark.text-max-rows", 50_000);
+        run("warm-up", generator, request(1000, "coffee"));
+        run("warm-up", generator, request(1000, JasperTemplateRegistry.TABLE));
+        run("warm-up", direct, request(1000, JasperTemplateRegistry.TABLE));
+        for (String count : System.getProperty("benchmark.rows", "1000,50000,500000").split(",")) {
+            int rows = Integer.parseInt(count.trim());
+            if (rows <= textMaxRows) {
+                run("text   ", generator, request(rows, "coffee"));
+            }
+            run("table  ", generator, request(rows, JasperTemplateRegistry.TABLE));
+            run("direct ", direct, request(rows, JasperTemplateRegistry.TABLE));
+        }
+    }
+
+    @Test
+    public void swapFile() {
+        int rows = Integer.getInteger("benchmark.swap-rows", 340_000);
+        PDFGenerator inMemory = new PDFGenerator(registry, 0, 0, null, 0, 1, PDFGenerator.Engine.JASPER);
+        PDFGenerator swapped = new PDFGenerator(registry, 1000, 100, System.getProperty("java.io.tmpdir"), 0, 1, PDFGenerator.Engine.JASPER);
+        run("warm-up", swapped, request(2000, JasperTemplateRegistry.TABLE));
+        run("memory ", inMemory, request(rows, JasperTemplateRegistry.TABLE));
+        run("swap   ", swapped, request(rows, JasperTemplateRegistry.TABLE));
+    }
+
+    @Test
+    public void workers() {
+        int rows = Integer.getInteger("benchmark.parallel-rows", 64_000);
+        run("warm-up", new PDFGenerator(registry, 0, 0, null, 4000, 2, PDFGenerator.Engine.JASPER), request(rows, JasperTemplateRegistry.TABLE));
+        for (int workers : new int[]{1, 2, 4, 8, 16}) {
+            PDFGenerator generator = new PDFGenerator(registry, 0, 0, null, 4000, workers, PDFGenerator.Engine.JASPER);
+            run("warm-up", generator, request(8000, JasperTemplateRegistry.TABLE));
+            run(String.format("%2d worker", workers), generator, request(rows, JasperTemplateRegistry.TABLE));
+            generator.shutdown();
+        }
+    }
+
+    static PDFRequest request(int rows, String template) {
+        PDFRequest request = new PDFRequest();
+        request.setDescription("Students");
+        request.setTemplate(template);
+        request.setHeaders(List.of("Id", "Name", "Class", "Score", "Email"));
+        List<List<String>> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            data.add(List.of(String.valueOf(i), "Student-" + i, "Class-" + i % 30, String.valueOf(60 + i % 40), "student" + i + "@school.edu"));
+        }
+        request.setData(data);
+        return request;
+    }
+
+    private void run(String name, PDFGenerator generator, PDFRequest request) {
+        System.gc();
+        long baseline = resetPeakHeap();
+        long start = System.nanoTime();
+        CountingStream out = new CountingStream();
+        try {
+            generator.generate(request, out);
+            System.out.printf("%s %,8d rows: %,8d ms, peak heap %,6d MB over the data, PDF %,8d KB%n", name, request.getData().size(),
+                    (System.nanoTime() - start) / 1_000_000, (peakHeap() - baseline) >> 20, out.size >> 10);
+        } catch (OutOfMemoryError e) {
+            System.out.printf("%s %,8d rows: out of memory after %,d ms%n", name, request.getData().size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private long resetPeakHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static class CountingStream extends OutputStream {
+        long size;
+
+        @Override
+        public void write(int b) {
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            size += len;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.antra.evaluation.reporting_system;
+
+import com.antra.evaluation.reporting_system.pojo.api.PDFRequest;
+import com.antra.evaluation.reporting_system.service.JasperTemplateRegistry;
+import com.antra.evaluation.reporting_system.service.PDFGenerator;
+import com.antra.evaluation.reporting_system.service.RowDataSource;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TableReportTest {
+
+    private final JasperTemplateRegistry registry = new JasperTemplateRegistry(new DefaultResourceLoader(),
+            new String[]{"coffee=classpath:Coffee_Landscape.jasper"}, JasperTemplateRegistry.TABLE, 0, 50);
+
+    @BeforeAll
+    public static void ignoreMissingFonts() {
+        JasperTemplateRegistryTest.ignoreMissingFonts();
+    }
+
+    @Test
+    public void testRowsArePaginatedWithTheHeaders() throws Exception {
+        assertTrue(registry.isTable(null));
+        assertSame(registry.table(3), registry.table(3));
+
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(List.of(String.valueOf(i), "Student-" + i));
+        }
+        // a missing value is blank
+        rows.set(50, List.of("50"));
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("desc_str", "Students");
+        parameters.put("header_0", "Id");
+        parameters.put("header_1", "Name");
+        JasperPrint print = JasperFillManager.fillReport(registry.table(2), parameters, new RowDataSource(rows));
+
+        List<JRPrintPage> pages = print.getPages();
+        assertTrue(pages.size() > 1);
+        List<String> ids = new ArrayList<>();
+        for (int p = 0; p < pages.size(); p++) {
+            List<String> texts = texts(pages.get(p));
+            assertEquals(List.of("Id", "Name"), texts.subList(p == 0 ? 1 : 0, p == 0 ? 3 : 2));
+            assertEquals("Page " + (p + 1), texts.get(texts.size() - 1));
+            for (int i = p == 0 ? 3 : 2; i < texts.size() - 1; i += 2) {
+                ids.add(texts.get(i));
+            }
+        }
+        assertEquals("Students", texts(pages.get(0)).get(0));
+        assertEquals(rows.stream().map(row -> row.get(0)).collect(Collectors.toList()), ids);
+    }
+
+    @Test
+    public void testTableIsTheDefaultPdf() {
+        PDFRequest request = JasperTemplateRegistryTest.request("Students");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PDFGenerator(registry, 20000, 100, System.getProperty("java.io.tmpdir"), 0, 1, PDFGenerator.Engine.JASPER).generate(request, out);
+        assertTrue(new String(out.toByteArray(), 0, 5).startsWith("%PDF"));
+    }
+
+    @Test
+    public void testLargeTableIsFilledWithASwapFile(@TempDir File swapDir) {
+        PDFRequest request = JasperTemplateRegistryTest.request("Students");
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(List.of(String.valueOf(i), "Student-" + i));
+        }
+        request.setHeaders(List.of("Id", "Name"));
+        request.setData(rows);
+        ByteArrayOutputStream inMemory = new ByteArrayOutputStream();
+        new PDFGenerator(registry, 0, 100, swapDir.getPath(), 0, 1, PDFGenerator.Engine.JASPER).generate(request, inMemory);
+        // above 1000 rows, only 2 of the ~60 pages are kept in memory
+        ByteArrayOutputStream swapped = new ByteArrayOutputStream();
+        new PDFGenerator(registry, 1000, 2, swapDir.getPath(), 0, 1, PDFGenerator.Engine.JASPER).generate(request, swapped);
+
+        String pdf = new String(swapped.toByteArray(), 0, 5);
+        assertTrue(pdf.startsWith("%PDF"));
+        assertEquals(inMemory.size(), swapped.size(), inMemory.size() / 100.0);
+        assertEquals(0, swapDir.list().length);
+    }
+
+    @Test
+    public void testChunksAreFilledInParallelAsOnePdf(@TempDir File swapDir) throws Exception {
+        PDFRequest request = JasperTemplateRegistryTest.request("Students");
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(List.of(String.valueOf(i), "Student-" + i, String.valueOf(60 + i % 40)));
+        }
+        request.setData(rows);
+        ByteArrayOutputStream whole = new ByteArrayOutputStream();
+        new PDFGenerator(registry, 0, 100, swapDir.getPath(), 0, 1, PDFGenerator.Engine.JASPER).generate(request, whole);
+        // chunks of 3 pages on 4 workers
+        ByteArrayOutputStream chunked = new ByteArrayOutputStream();
+        new PDFGenerator(registry, 0, 100, swapDir.getPath(), 100, 4, PDFGenerator.Engine.JASPER).generate(request, chunked);
+        ByteArrayOutputStream swapped = new ByteArrayOutputStream();
+        new PDFGenerator(registry, 1000, 4, swapDir.getPath(), 100, 4, PDFGenerator.Engine.JASPER).generate(request, swapped);
+
+        List<String> pages = pageTexts(whole.toByteArray());
+        assertTrue(pages.size() > 20);
+        assertTrue(pages.get(pages.size() - 1).contains("Page " + pages.size()));
+        assertEquals(pages, pageTexts(chunked.toByteArray()));
+        assertEquals(pages, pageTexts(swapped.toByteArray()));
+        assertEquals(0, swapDir.list().length);
+    }
+
+    private List<String> pageTexts(byte[] pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        PdfTextExtractor extractor = new PdfTextExtractor(reader);
+        List<String> pages = new ArrayList<>();
+        for (int i = 1; i <= reader.getNumberOfPages(); i++) {
+            pages.add(extractor.getTextFromPage(i));
+        }
+        return pages;
+    }
+
+    private List<String> texts(JRPrintPage page) {
+        List<String> texts = new ArrayList<>();
+        for (JRPrintElement element : page.getElements()) {
+            texts.add(((JRPrintText) element).getFullText());
+        }
+        return texts;
+    }
+}
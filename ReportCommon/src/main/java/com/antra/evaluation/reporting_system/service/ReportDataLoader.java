@@ -0,0 +1,84 @@
+package com.antra.evaluation.reporting_system.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3URI;
+import com.amazonaws.services.s3.model.S3Object;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * ReportDataLoader reads the data rows that ClientService offloaded from a large report request (claim check).
+ * The dataLocation is either s3://bucket/key or a file: URI of the local stand-in, the rows are gzip compressed JSON.
+ * The location comes from the message, so only the objects ClientService writes are read: keys under
+ * app.claim-check.prefix of app.claim-check.bucket, and files under app.claim-check.local-dir while the local profile is active.
+ */
+@Component
+public class ReportDataLoader {
+
+    private static final TypeReference<List<List<String>>> ROWS = new TypeReference<List<List<String>>>() { };
+
+    private final AmazonS3 s3Client;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final String bucket;
+    private final String prefix;
+    private final Path localDir;
+
+    public ReportDataLoader(AmazonS3 s3Client, ObjectMapper objectMapper, Environment environment,
+                            @Value("${app.claim-check.bucket:}") String bucket,
+                            @Value("${app.claim-check.prefix:report-data/}") String prefix,
+                            @Value("${app.claim-check.local-dir:${java.io.tmpdir}/report-data}") String localDir) {
+        this.s3Client = s3Client;
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.bucket = bucket;
+        this.prefix = prefix;
+        this.localDir = Paths.get(localDir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Load the data rows stored at the location
+     * @param dataLocation pointer sent in the ExcelRequest or PDFRequest instead of the data
+     * @return data rows of the report
+     */
+    public List<List<String>> load(String dataLocation) throws IOException {
+        URI uri = URI.create(dataLocation);
+        if ("s3".equals(uri.getScheme())) {
+            AmazonS3URI s3Uri = new AmazonS3URI(uri);
+            String key = s3Uri.getKey();
+            if (bucket.isEmpty() || !bucket.equals(s3Uri.getBucket()) || key == null || !key.startsWith(prefix) || key.contains("..")) {
+                throw new IllegalArgumentException("Report data location outside of the claim check bucket: " + dataLocation);
+            }
+            try (S3Object object = s3Client.getObject(bucket, key);
+                 InputStream in = new GZIPInputStream(object.getObjectContent())) {
+                return objectMapper.readValue(in, ROWS);
+            }
+        }
+        if ("file".equals(uri.getScheme())) {
+            if (!environment.acceptsProfiles(Profiles.of("local"))) {
+                throw new IllegalArgumentException("Local report data is only read with the local profile: " + dataLocation);
+            }
+            Path file = Paths.get(uri).normalize();
+            if (!file.startsWith(localDir)) {
+                throw new IllegalArgumentException("Report data location outside of the claim check directory: " + dataLocation);
+            }
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                return objectMapper.readValue(in, ROWS);
+            }
+        }
+        throw new IllegalArgumentException("Unsupported report data location: " + dataLocation);
+    }
+}
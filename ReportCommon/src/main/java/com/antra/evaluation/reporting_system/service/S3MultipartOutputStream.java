@@ -0,0 +1,270 @@
+package com.antra.evaluation.reporting_system.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * S3MultipartOutputStream uploads what is written to it as an S3 object without a local file.
+ * Every full buffer of partSize bytes is uploaded as a part of a multipart upload on the executor while the next one fills,
+ * at most maxBuffers buffers exist so a slow upload blocks the writer instead of growing the heap.
+ * An object smaller than one part is sent with a single putObject. The size and the SHA-256 of the content are computed
+ * on the way through and available once the stream is closed. A failed upload is aborted, S3 then drops the uploaded parts.
+ */
+public class S3MultipartOutputStream extends OutputStream {
+    private static final Logger log = LoggerFactory.getLogger(S3MultipartOutputStream.class);
+
+    /** S3 minimum size of every part but the last */
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final AmazonS3 s3Client;
+    private final String bucket;
+    private final String key;
+    private final String contentType;
+    private final int partSize;
+    private final ExecutorService executor;
+    private final int maxBuffers;
+    private final BlockingQueue<byte[]> freeBuffers;
+    private final MessageDigest digest;
+    private final List<Future<PartETag>> parts = new ArrayList<>();
+
+    private int allocatedBuffers;
+    private byte[] buffer;
+    private int position;
+    private long size;
+    private String uploadId;
+    private boolean closed;
+    private String checksum;
+
+    S3MultipartOutputStream(AmazonS3 s3Client, String bucket, String key, String contentType,
+                            int partSize, ExecutorService executor, int maxBuffers) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.key = key;
+        this.contentType = contentType;
+        this.partSize = partSize;
+        this.executor = executor;
+        this.maxBuffers = Math.max(2, maxBuffers);
+        this.freeBuffers = new ArrayBlockingQueue<>(this.maxBuffers);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        this.buffer = new byte[partSize];
+        this.allocatedBuffers = 1;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (position == partSize) {
+            uploadPart();
+        }
+        buffer[position++] = (byte) b;
+        digest.update((byte) b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        digest.update(b, off, len);
+        size += len;
+        while (len > 0) {
+            if (position == partSize) {
+                uploadPart();
+            }
+            int n = Math.min(len, partSize - position);
+            System.arraycopy(b, off, buffer, position, n);
+            position += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Upload the buffered content and complete the object
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (uploadId == null) {
+                ObjectMetadata metadata = metadata();
+                metadata.setContentLength(position);
+                s3Client.putObject(bucket, key, new ByteArrayInputStream(buffer, 0, position), metadata);
+            } else {
+                if (position > 0) {
+                    submitPart();
+                }
+                List<PartETag> eTags = new ArrayList<>(parts.size());
+                for (Future<PartETag> part : parts) {
+                    eTags.add(part.get());
+                }
+                s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, eTags));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortUpload();
+            throw new InterruptedIOException("Interrupted while uploading " + key);
+        } catch (ExecutionException | RuntimeException e) {
+            abortUpload();
+            throw new IOException("Cannot upload " + key + " to S3", e instanceof ExecutionException ? e.getCause() : e);
+        } finally {
+            buffer = null;
+            freeBuffers.clear();
+        }
+        checksum = toHex(digest.digest());
+        log.debug("Uploaded {} bytes to s3://{}/{} in {} parts", size, bucket, key, Math.max(1, parts.size()));
+    }
+
+    /**
+     * Give up the upload, nothing is stored under the key. Closing the stream afterwards does nothing.
+     */
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        abortUpload();
+        buffer = null;
+        freeBuffers.clear();
+    }
+
+    /**
+     * @return number of bytes written
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return hex SHA-256 of the content, null until the stream is closed
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    private void uploadPart() throws IOException {
+        if (uploadId == null) {
+            uploadId = s3Client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, key, metadata())).getUploadId();
+        }
+        failFast();
+        submitPart();
+        buffer = nextBuffer();
+        position = 0;
+    }
+
+    private void submitPart() {
+        byte[] part = buffer;
+        int length = position;
+        int partNumber = parts.size() + 1;
+        parts.add(executor.submit(() -> {
+            try {
+                return s3Client.uploadPart(new UploadPartRequest()
+                        .withBucketName(bucket)
+                        .withKey(key)
+                        .withUploadId(uploadId)
+                        .withPartNumber(partNumber)
+                        .withPartSize(length)
+                        .withInputStream(new ByteArrayInputStream(part, 0, length)))
+                        .getPartETag();
+            } finally {
+                freeBuffers.offer(part);
+            }
+        }));
+    }
+
+    private byte[] nextBuffer() throws IOException {
+        byte[] free = freeBuffers.poll();
+        if (free != null) {
+            return free;
+        }
+        if (allocatedBuffers < maxBuffers) {
+            allocatedBuffers++;
+            return new byte[partSize];
+        }
+        try {
+            return freeBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort();
+            throw new InterruptedIOException("Interrupted while uploading " + key);
+        }
+    }
+
+    /**
+     * Stop writing as soon as a part failed instead of generating the rest of the file for nothing
+     */
+    private void failFast() throws IOException {
+        for (Future<PartETag> part : parts) {
+            if (part.isDone()) {
+                try {
+                    part.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    abort();
+                    throw new IOException("Cannot upload " + key + " to S3", e instanceof ExecutionException ? e.getCause() : e);
+                }
+            }
+        }
+    }
+
+    private void abortUpload() {
+        parts.forEach(part -> part.cancel(true));
+        if (uploadId != null) {
+            try {
+                s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+            } catch (RuntimeException e) {
+                log.error("Cannot abort the upload of {}, the bucket lifecycle has to remove its parts", key, e);
+            }
+        }
+    }
+
+    private ObjectMetadata metadata() {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        return metadata;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.antra.evaluation.reporting_system.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * S3StreamingUploader streams a generated report straight into S3 through an {@link S3MultipartOutputStream}.
+ * Parts of app.s3.upload.part-size bytes (at least 5 MB) are uploaded by app.s3.upload.concurrency threads shared by all uploads.
+ */
+@Component
+public class S3StreamingUploader {
+
+    public interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private final AmazonS3 s3Client;
+    private final String bucket;
+    private final int partSize;
+    private final int concurrency;
+    private final ExecutorService executor;
+
+    public S3StreamingUploader(AmazonS3 s3Client,
+                               @Value("${s3.bucket}") String bucket,
+                               @Value("${app.s3.upload.part-size:8388608}") int partSize,
+                               @Value("${app.s3.upload.concurrency:4}") int concurrency) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.partSize = Math.max(partSize, S3MultipartOutputStream.MIN_PART_SIZE);
+        this.concurrency = concurrency;
+        this.executor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "s3-part-upload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Upload the content written by the writer as the object bucket/key
+     * @param key S3 key of the object
+     * @param contentType content type stored with the object
+     * @param writer writes the content, it must not close the stream
+     * @return the closed stream with the size and checksum of the uploaded content
+     * @throws IOException if the writer or the upload failed, the upload is aborted then
+     */
+    public S3MultipartOutputStream upload(String key, String contentType, ContentWriter writer) throws IOException {
+        // one buffer per upload thread plus the one being filled
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3Client, bucket, key, contentType, partSize, executor, concurrency + 1);
+        try {
+            writer.write(out);
+        } catch (Throwable e) {
+            out.abort();
+            throw e;
+        }
+        out.close();
+        return out;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
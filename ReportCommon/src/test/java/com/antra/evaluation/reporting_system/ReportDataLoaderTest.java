@@ -0,0 +1,66 @@
+package com.antra.evaluation.reporting_system;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.antra.evaluation.reporting_system.service.ReportDataLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+public class ReportDataLoaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AmazonS3 s3Client = mock(AmazonS3.class);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testLoadOffloadedRows() throws Exception {
+        List<List<String>> data = List.of(List.of("1", "York", "Math", "90"), List.of("2", "Dawei", "Math", "95"));
+        Path file = dir.resolve("Req-1.json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            objectMapper.writeValue(out, data);
+        }
+
+        assertEquals(data, loader("local").load(file.toUri().toString()));
+    }
+
+    @Test
+    public void testUnknownLocation() {
+        assertThrows(IllegalArgumentException.class, () -> loader("local").load("ftp://host/Req-1.json.gz"));
+    }
+
+    @Test
+    public void testOnlyTheClaimCheckObjectsAreRead() throws Exception {
+        ReportDataLoader loader = loader();
+        // rejected before S3 is called, the mock client would fail them with a NullPointerException
+        assertThrows(IllegalArgumentException.class, () -> loader.load("s3://other-bucket/report-data/Req-1.json.gz"));
+        assertThrows(IllegalArgumentException.class, () -> loader.load("s3://report-bucket/secrets/Req-1.json.gz"));
+        assertThrows(IllegalArgumentException.class, () -> loader.load("s3://report-bucket/report-data/../secrets/Req-1.json.gz"));
+
+        Path file = dir.resolve("Req-1.json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            objectMapper.writeValue(out, List.of(List.of("1")));
+        }
+        // local files only with the local profile, and only in the claim check directory
+        assertThrows(IllegalArgumentException.class, () -> loader.load(file.toUri().toString()));
+        assertThrows(IllegalArgumentException.class, () -> loader("local").load(dir.resolve("../etc/passwd").toUri().toString()));
+    }
+
+    private ReportDataLoader loader(String... profiles) {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles(profiles);
+        return new ReportDataLoader(s3Client, objectMapper, environment, "report-bucket", "report-data/", dir.toString());
+    }
+}
@@ -0,0 +1,143 @@
+package com.antra.evaluation.reporting_system;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.antra.evaluation.reporting_system.service.S3MultipartOutputStream;
+import com.antra.evaluation.reporting_system.service.S3StreamingUploader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class S3StreamingUploaderTest {
+    private static final int PART_SIZE = S3MultipartOutputStream.MIN_PART_SIZE;
+
+    private final InMemoryS3 s3 = new InMemoryS3();
+    private final S3StreamingUploader uploader = new S3StreamingUploader(s3.client, "bucket", PART_SIZE, 2);
+
+    @AfterEach
+    public void tearDown() {
+        uploader.shutdown();
+    }
+
+    @Test
+    public void testSmallObjectIsOnePut() throws Exception {
+        byte[] content = "small report".getBytes();
+
+        S3MultipartOutputStream upload = uploader.upload("File-1", "application/pdf", out -> out.write(content));
+
+        assertArrayEquals(content, s3.objects.get("File-1"));
+        assertEquals(content.length, upload.getSize());
+        assertEquals(sha256(content), upload.getChecksum());
+        verify(s3.client, never()).initiateMultipartUpload(any());
+    }
+
+    @Test
+    public void testLargeObjectIsUploadedInParts() throws Exception {
+        byte[] content = new byte[PART_SIZE * 2 + 1234];
+        new Random(42).nextBytes(content);
+
+        S3MultipartOutputStream upload = uploader.upload("File-2", "application/pdf", out -> {
+            // odd write sizes so the parts are cut in the middle of a write
+            for (int off = 0; off < content.length; off += 100_003) {
+                out.write(content, off, Math.min(100_003, content.length - off));
+            }
+        });
+
+        assertEquals(3, s3.partCount);
+        assertArrayEquals(content, s3.objects.get("File-2"));
+        assertEquals(content.length, upload.getSize());
+        assertEquals(sha256(content), upload.getChecksum());
+    }
+
+    @Test
+    public void testFailedWriterAbortsTheUpload() {
+        assertThrows(IOException.class, () -> uploader.upload("File-3", "application/pdf", out -> {
+            out.write(new byte[PART_SIZE + 1]);
+            throw new IOException("generation failed");
+        }));
+
+        verify(s3.client).abortMultipartUpload(any());
+        verify(s3.client, never()).completeMultipartUpload(any());
+        assertFalse(s3.objects.containsKey("File-3"));
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Stand-in of the S3 calls the upload uses, it keeps the objects and pending parts in memory
+     */
+    private static class InMemoryS3 {
+        final AmazonS3 client = mock(AmazonS3.class);
+        final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+        volatile int partCount;
+
+        InMemoryS3() {
+            when(client.putObject(anyString(), anyString(), any(InputStream.class), any(ObjectMetadata.class))).thenAnswer(call -> {
+                objects.put(call.getArgument(1), ((InputStream) call.getArgument(2)).readAllBytes());
+                return new PutObjectResult();
+            });
+            when(client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenAnswer(call -> {
+                InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+                result.setUploadId("upload-1");
+                return result;
+            });
+            when(client.uploadPart(any(UploadPartRequest.class))).thenAnswer(call -> {
+                UploadPartRequest request = call.getArgument(0);
+                parts.put(request.getPartNumber(), request.getInputStream().readAllBytes());
+                UploadPartResult result = new UploadPartResult();
+                result.setPartNumber(request.getPartNumber());
+                result.setETag("etag-" + request.getPartNumber());
+                return result;
+            });
+            when(client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class))).thenAnswer(call -> {
+                CompleteMultipartUploadRequest request = call.getArgument(0);
+                ByteArrayOutputStream object = new ByteArrayOutputStream();
+                for (PartETag part : request.getPartETags()) {
+                    object.write(parts.remove(part.getPartNumber()));
+                }
+                partCount = request.getPartETags().size();
+                objects.put(request.getKey(), object.toByteArray());
+                return new CompleteMultipartUploadResult();
+            });
+            doAnswer(call -> {
+                parts.clear();
+                return null;
+            }).when(client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        }
+    }
+}